@@ -1,99 +1,121 @@
-package tests;
-
-import com.aventstack.extentreports.ExtentReports;
-import com.aventstack.extentreports.reporter.ExtentSparkReporter;
-import com.aventstack.extentreports.ExtentTest;
-
-import io.github.bonigarcia.wdm.WebDriverManager;
-import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.chrome.ChromeOptions;
-
-import org.testng.annotations.*;
-
-import java.io.File;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-
-public class BaseTest {
-
-    protected WebDriver driver;      
-    protected static ExtentReports extent;
-
-    @BeforeSuite
-    public void setupReport() {
-        try {
-            String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
-            String reportDir = System.getProperty("user.dir") + "/report";
-            new File(reportDir).mkdirs();
-            String reportPath = reportDir + "/Report_" + timestamp + ".html";
-
-            ExtentSparkReporter spark = new ExtentSparkReporter(reportPath);
-            spark.config().setReportName("Full Website Validation Report");
-            spark.config().setDocumentTitle("Automation Report");
-
-            extent = new ExtentReports();
-            extent.attachReporter(spark);
-
-            extent.setSystemInfo("Tester", "Ravneet Kaur");
-            extent.setSystemInfo("Environment", "Staging");
-
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    }
-
-  
-    @BeforeMethod
-    public void setupDriver() {
-        try {
-            WebDriverManager.chromedriver().setup();
-
-            ChromeOptions options = new ChromeOptions();
-            options.addArguments("--disable-gpu");
-            options.addArguments("--disable-dev-shm-usage");
-            options.addArguments("--no-sandbox");
-            options.addArguments("--disable-extensions");
-            options.addArguments("--disable-notifications");
-            options.addArguments("--window-size=1920,1080");
-            options.addArguments("--remote-allow-origins=*");
-
-           
-            options.addArguments("--headless=new");
-
-            driver = new ChromeDriver(options);
-
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    }
-
-    public WebDriver getDriver() {
-        return driver;
-    }
-
-  
-    @AfterMethod
-    public void tearDown() {
-        try {
-            if (driver != null) {
-                driver.quit();
-            }
-        } catch (Exception ignored) {}
-    }
-
-   
-    @AfterSuite
-    public void closeReport() {
-        try {
-            if (extent != null) {
-                extent.flush();
-            }
-        } catch (Exception ignored) {}
-    }
-
- 
-    public ExtentTest createTest(String name) {
-        return extent.createTest(name);
-    }
-}
+package tests;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.reporter.ExtentSparkReporter;
+import com.aventstack.extentreports.ExtentTest;
+
+import org.openqa.selenium.WebDriver;
+
+import org.testng.annotations.*;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import utils.ConcurrentExtentReports;
+import utils.WebDriverPool;
+
+public class BaseTest {
+
+    // One driver per TestNG thread, so parallel="methods" / "instances" is safe
+    private static final ThreadLocal<WebDriver> DRIVER = new ThreadLocal<>();
+
+    protected static ExtentReports extent;
+
+    @BeforeSuite
+    public void setupReport() {
+        try {
+            String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
+            String reportDir = System.getProperty("user.dir") + "/report";
+            new File(reportDir).mkdirs();
+            String reportPath = reportDir + "/Report_" + timestamp + ".html";
+
+            ExtentSparkReporter spark = new ExtentSparkReporter(reportPath);
+            spark.config().setReportName("Full Website Validation Report");
+            spark.config().setDocumentTitle("Automation Report");
+
+            extent = new ConcurrentExtentReports();
+            extent.attachReporter(spark);
+
+            extent.setSystemInfo("Tester", "Ravneet Kaur");
+            extent.setSystemInfo("Environment", "Staging");
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+  
+    /**
+     * Lease a warm Chrome from the shared pool. Safe to call again per site:
+     * a healthy driver that is already leased is simply kept.
+     */
+    @BeforeMethod
+    public void setupDriver() {
+        try {
+            WebDriver current = DRIVER.get();
+
+            if (current != null) {
+                try {
+                    current.getWindowHandle();
+                    return;
+                } catch (Exception crashed) {
+                    discardDriver();
+                }
+            }
+
+            DRIVER.set(WebDriverPool.shared().lease());
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /** The driver leased by the current thread (null before setupDriver()). */
+    public WebDriver getDriver() {
+        return DRIVER.get();
+    }
+
+    /** Give the driver back to the pool (replaces driver.quit() in tests). */
+    protected void releaseDriver() {
+        WebDriver current = DRIVER.get();
+        if (current != null) {
+            WebDriverPool.shared().release(current);
+            DRIVER.remove();
+        }
+    }
+
+    /** Drop a driver that crashed or hung; the pool starts a fresh one on the next lease. */
+    protected void discardDriver() {
+        WebDriver current = DRIVER.get();
+        if (current != null) {
+            WebDriverPool.shared().invalidate(current);
+            DRIVER.remove();
+        }
+    }
+
+  
+    @AfterMethod
+    public void tearDown() {
+        try {
+            releaseDriver();
+        } catch (Exception ignored) {}
+    }
+
+   
+    @AfterSuite
+    public void closeReport() {
+        try {
+            if (extent != null) {
+                extent.flush();
+            }
+        } catch (Exception ignored) {}
+
+        WebDriverPool.shared().shutdown();
+    }
+
+ 
+    public ExtentTest createTest(String name) {
+        return extent.createTest(name);
+    }
+}
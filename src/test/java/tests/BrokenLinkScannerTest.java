@@ -1,165 +1,196 @@
-package tests;
-
-import com.aventstack.extentreports.*;
-import org.jsoup.*;
-import org.jsoup.nodes.*;
-
-import org.testng.annotations.Test;
-
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.net.HttpURLConnection;
-import java.net.URI;
-import java.util.*;
-
-public class BrokenLinkScannerTest extends BaseTest {
-
-    private Set<String> visitedPages = new HashSet<>();
-    private Queue<String> pageQueue = new LinkedList<>();
-
-    private Set<String> allLinks = new HashSet<>();
-    private Set<String> brokenLinks = new HashSet<>();
-    private Set<String> workingLinks = new HashSet<>();
-
-    @Test
-    public void brokenLinkScanner() throws Exception {
-
-        ExtentTest summary = extent.createTest("📊 Broken Link Scanner Summary");
-        ExtentTest test = extent.createTest("🔎 Broken Link Scanner – Full Website Audit");
-
-        // Load base URL
-        String baseUrl = readUrlFromCSV("src/test/resources/urls.csv");
-        summary.info("🌍 Base URL: " + baseUrl);
-
-        pageQueue.add(baseUrl);
-
-        // ===========================================
-        // 🚀 STEP 1 — Crawl All Pages via Jsoup (HTML only)
-        // ===========================================
-        while (!pageQueue.isEmpty()) {
-
-            String currentPage = pageQueue.poll();
-            if (visitedPages.contains(currentPage)) continue;
-
-            visitedPages.add(currentPage);
-
-            try {
-                Document doc = Jsoup.connect(currentPage)
-                        .timeout(6000)
-                        .userAgent("Mozilla/5.0")
-                        .ignoreContentType(true)
-                        .get();
-
-                test.info("🟢 Page Loaded Successfully: " + currentPage);
-
-                extractHtmlLinks(test, doc, baseUrl);
-
-            } catch (Exception e) {
-                test.warning("⚠ Could not load HTML page: " + currentPage);
-            }
-        }
-
-        summary.info("📘 Total Pages Crawled: " + visitedPages.size());
-        summary.info("🔗 Total Unique URLs Found: " + allLinks.size());
-
-        // ===========================================
-        // 🚀 STEP 2 — VALIDATE ALL LINKS (HTTP only)
-        // ===========================================
-        test.info("⏳ Validating all links…");
-
-        for (String url : allLinks) {
-
-            int status = getStatus(url);
-
-            if (status == 200) {
-                workingLinks.add(url);
-            } else {
-                brokenLinks.add(url);
-            }
-        }
-
-        // ===========================================
-        // 🚀 STEP 3 — CLEAN SIMPLE SUMMARY
-        // ===========================================
-        summary.info("=====================================");
-        summary.info("🔗 BROKEN LINK SUMMARY");
-        summary.info("=====================================");
-        summary.info("🔸 Total Links Found: " + allLinks.size());
-        summary.info("🟢 Working Links: " + workingLinks.size());
-        summary.info("🔴 Broken Links: " + brokenLinks.size());
-        summary.pass("✔ Broken Link Scan Completed Successfully");
-    }
-
-    // =======================================================
-    // Extract ONLY HTML links using Jsoup
-    // =======================================================
-    private void extractHtmlLinks(ExtentTest test, Document doc, String baseUrl) {
-
-        // 1. Anchor tags
-        for (Element a : doc.select("a[href]")) {
-            processUrl(a.absUrl("href"), baseUrl);
-        }
-
-        // 2. Images
-        for (Element img : doc.select("img[src]")) {
-            processUrl(img.absUrl("src"), baseUrl);
-        }
-
-        // 3. CSS Files
-        for (Element css : doc.select("link[href]")) {
-            processUrl(css.absUrl("href"), baseUrl);
-        }
-
-        // 4. JS Files
-        for (Element js : doc.select("script[src]")) {
-            processUrl(js.absUrl("src"), baseUrl);
-        }
-    }
-
-    // =======================================================
-    // Add links + schedule internal pages for crawling
-    // =======================================================
-    private void processUrl(String url, String baseUrl) {
-
-        if (url == null || url.isBlank()) return;
-
-        // Remove # anchors
-        if (url.contains("#")) url = url.substring(0, url.indexOf("#"));
-
-        allLinks.add(url);
-
-        // Crawl internal pages only
-        if (url.startsWith(baseUrl) &&
-                !visitedPages.contains(url) &&
-                (url.endsWith("/") || url.endsWith(".html"))) {
-
-            pageQueue.add(url);
-        }
-    }
-
-    // =======================================================
-    // HTTP STATUS CHECK
-    // =======================================================
-    private int getStatus(String url) {
-        try {
-            HttpURLConnection http = (HttpURLConnection)
-                    new URI(url).toURL().openConnection();
-
-            http.setRequestMethod("HEAD"); // FASTEST
-            http.setConnectTimeout(5000);
-            http.setReadTimeout(5000);
-            http.connect();
-
-            return http.getResponseCode();
-        } catch (Exception e) {
-            return -1;  // Timeout or connection refused
-        }
-    }
-
-    private String readUrlFromCSV(String filePath) throws Exception {
-        BufferedReader br = new BufferedReader(new FileReader(filePath));
-        String url = br.readLine();
-        br.close();
-        return url.trim();
-    }
-}
+package tests;
+
+import com.aventstack.extentreports.*;
+import org.jsoup.*;
+import org.jsoup.nodes.*;
+
+import org.testng.annotations.Test;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.net.URI;
+import java.util.*;
+import java.util.function.Predicate;
+
+import utils.CrawlCheckpoint;
+import utils.CrawlBudget;
+import utils.CrawlEngine;
+import utils.LinkResult;
+import utils.LinkValidator;
+import utils.ResponseCache;
+import utils.UrlCanonicalizer;
+import utils.UrlIndex;
+
+public class BrokenLinkScannerTest extends BaseTest {
+
+    // Batches of links checked at once; results are folded into linkStatus and dropped
+    private static final int CHECK_BATCH = 5000;
+
+    // Each link's URL is held once; de-duplication and statuses use a compact hash index
+    private List<String> allLinks = new ArrayList<>();
+    private UrlIndex linkStatus = new UrlIndex(64 * 1024);
+
+    @Test
+    public void brokenLinkScanner() throws Exception {
+
+        ExtentTest summary = extent.createTest("📊 Broken Link Scanner Summary");
+        ExtentTest test = extent.createTest("🔎 Broken Link Scanner – Full Website Audit");
+
+        // Load base URL
+        String baseUrl = readUrlFromCSV("src/test/resources/urls.csv");
+        summary.info("🌍 Base URL: " + baseUrl);
+
+        // ===========================================
+        // 🚀 STEP 1 — Crawl All Pages via Jsoup (HTML only, parallel)
+        // ===========================================
+        // Journal the crawl; -Dcrawl.resume=true continues an interrupted run
+        CrawlCheckpoint checkpoint = CrawlCheckpoint.forCrawl("broken-link-scanner", baseUrl);
+        if (checkpoint.isResumed()) {
+            summary.info("♻ Resuming from checkpoint: " + checkpoint.finished().size()
+                    + " pages done, " + checkpoint.pending().size() + " pending");
+        }
+
+        // The engine hands canonical URLs to followWhen: compare them with the base in the same form
+        Predicate<String> internal = UrlCanonicalizer.under(baseUrl);
+
+        // -Dbudget.pages / .minutes / .bytes can time-box the crawl
+        CrawlEngine engine = new CrawlEngine(CrawlEngine.httpWorkers())
+                .followWhen(url -> internal.test(url) && isCrawlablePage(url))
+                .budget(CrawlBudget.forSite(baseUrl, CrawlBudget.UNLIMITED))
+                .checkpointTo(checkpoint);
+
+        engine.crawl(baseUrl, () -> this::fetchPage, result -> {
+            // Also restores links of pages replayed from a checkpoint.
+            // Links are canonical already (processUrl), so the index hashes them as they are.
+            for (String link : result.links) {
+                if (linkStatus.addCanonical(link)) allLinks.add(link);
+            }
+
+            if (result.error == null) {
+                test.info("🟢 Page Loaded Successfully: " + result.url);
+            } else {
+                test.warning("⚠ Could not load HTML page: " + result.url);
+            }
+        });
+
+        summary.info("📘 Total Pages Crawled: " + engine.visitedCount());
+        if (engine.stoppedEarly() != null) summary.warning("⏱ Crawl stopped early: " + engine.stoppedEarly());
+        if (engine.disallowedCount() > 0) summary.info("🤖 Links disallowed by robots.txt (not crawled): " + engine.disallowedCount());
+        summary.info("🔗 Total Unique URLs Found: " + allLinks.size());
+
+        // ===========================================
+        // 🚀 STEP 2 — VALIDATE ALL LINKS (HTTP only)
+        // ===========================================
+        test.info("⏳ Validating all links…");
+
+        Map<String, Integer> brokenByCause = new TreeMap<>();
+
+        for (int from = 0; from < allLinks.size(); from += CHECK_BATCH) {
+            List<String> batch = allLinks.subList(from, Math.min(allLinks.size(), from + CHECK_BATCH));
+
+            for (LinkResult result : LinkValidator.checkAll(batch, "HEAD", 5000).values()) { // FASTEST
+                linkStatus.putCanonical(result.url, result.status);
+
+                if (result.status != 200) {
+                    brokenByCause.merge(result.failure == LinkResult.Failure.NONE
+                            ? "HTTP " + result.status : result.failure.toString(), 1, Integer::sum);
+                }
+            }
+        }
+
+        // ===========================================
+        // 🚀 STEP 3 — CLEAN SIMPLE SUMMARY
+        // ===========================================
+        summary.info("=====================================");
+        summary.info("🔗 BROKEN LINK SUMMARY");
+        summary.info("=====================================");
+        summary.info("🔸 Total Links Found: " + allLinks.size());
+        summary.info("🟢 Working Links: " + linkStatus.count(status -> status == 200));
+        summary.info("🔴 Broken Links: " + linkStatus.count(status -> status != 200));
+        brokenByCause.forEach((cause, count) -> summary.info("   • " + cause + ": " + count));
+        summary.pass("✔ Broken Link Scan Completed Successfully");
+    }
+
+    // =======================================================
+    // Crawl worker: fetch one page and return its internal pages
+    // =======================================================
+    private CrawlEngine.PageResult fetchPage(String url) throws Exception {
+
+        // Shared with the other validators: a page they already fetched is not downloaded again
+        ResponseCache.Entry response = ResponseCache.shared().fetch(url, 6000);
+        if (!LinkValidator.isOk(response.status)) {
+            throw new HttpStatusException("HTTP error fetching URL", response.status, url);
+        }
+        Document doc = Jsoup.parse(response.bodyAsString(), response.finalUrl);
+
+        CrawlEngine.PageResult result = new CrawlEngine.PageResult(url);
+        result.status = 200;
+        result.bytes = response.bodyLength;
+        result.links.addAll(extractHtmlLinks(doc));
+        return result;
+    }
+
+    // =======================================================
+    // Extract ONLY HTML links using Jsoup
+    // =======================================================
+    private List<String> extractHtmlLinks(Document doc) {
+
+        List<String> found = new ArrayList<>();
+
+        // 1. Anchor tags
+        for (Element a : doc.select("a[href]")) {
+            processUrl(a.absUrl("href"), found);
+        }
+
+        // 2. Images
+        for (Element img : doc.select("img[src]")) {
+            processUrl(img.absUrl("src"), found);
+        }
+
+        // 3. CSS Files
+        for (Element css : doc.select("link[href]")) {
+            processUrl(css.absUrl("href"), found);
+        }
+
+        // 4. JS Files
+        for (Element js : doc.select("script[src]")) {
+            processUrl(js.absUrl("src"), found);
+        }
+
+        return found;
+    }
+
+    // =======================================================
+    // Record every link; the engine decides which to crawl
+    // =======================================================
+    private void processUrl(String url, List<String> found) {
+
+        if (url == null || url.isBlank()) return;
+
+        // One spelling per page: no #anchors, tracking params, default ports...
+        found.add(UrlCanonicalizer.canonical(url));
+    }
+
+    // Pages only (no extension, or .html / .htm): files are link-checked, not crawled.
+    // Judged on the last path segment, so every -Durl.trailingSlash policy gives the same answer.
+    private boolean isCrawlablePage(String url) {
+        String path;
+        try {
+            path = URI.create(url).getPath();
+        } catch (Exception e) {
+            return false;
+        }
+        if (path == null) return false;
+
+        String last = path.substring(path.lastIndexOf('/') + 1).toLowerCase();
+        int dot = last.lastIndexOf('.');
+        return dot < 0 || last.endsWith(".html") || last.endsWith(".htm");
+    }
+
+    private String readUrlFromCSV(String filePath) throws Exception {
+        BufferedReader br = new BufferedReader(new FileReader(filePath));
+        String url = br.readLine();
+        br.close();
+        return url.trim();
+    }
+}
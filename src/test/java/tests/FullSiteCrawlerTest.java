@@ -1,170 +1,207 @@
-package tests;
-
-import org.openqa.selenium.*;
-import org.testng.annotations.Test;
-import com.aventstack.extentreports.*;
-
-import java.io.*;
-import java.net.HttpURLConnection;
-import java.net.URI;
-import java.util.*;
-
-public class FullSiteCrawlerTest extends BaseTest {
-
-    private Set<String> visitedUrls = new HashSet<>();
-    private Queue<String> urlsToVisit = new LinkedList<>();
-
-    private int workingPages = 0;
-    private int brokenPages = 0;
-    private int warningPages = 0;
-    private int skippedPages = 0;
-
-    @Test
-    public void fullSiteCrawler() throws Exception {
-
-        // ===========================================
-        // SUMMARY NODE AT TOP OF REPORT
-        // ===========================================
-        ExtentTest summaryNode = extent.createTest("📊 Crawl Summary");
-
-        ExtentTest test = extent.createTest("Full Site Crawler – Validate Every Page Works");
-
-        // ===========================================
-        // 1. Load Base URL
-        // ===========================================
-        String csvPath = "src/test/resources/websiteurl.csv";
-        String baseUrl = readUrlFromCSV(csvPath);
-
-        test.info("Base URL → " + baseUrl);
-        urlsToVisit.add(baseUrl);
-
-        // ===========================================
-        // 2. CRAWL LOOP
-        // ===========================================
-        while (!urlsToVisit.isEmpty()) {
-
-            String currentUrl = urlsToVisit.poll();
-            if (visitedUrls.contains(currentUrl)) continue;
-
-            visitedUrls.add(currentUrl);
-
-            // Skip invalid Elementor template links
-            if (shouldSkipUrl(currentUrl)) {
-                skippedPages++;
-                test.warning("⏩ Skipped invalid/template URL → " + currentUrl);
-                continue;
-            }
-
-            test.info("🔍 Checking → " + currentUrl);
-
-            try {
-                // HTTP Status
-                int status = getStatusCode(currentUrl);
-
-                if (status == 200) {
-                    workingPages++;
-                    test.pass("🟢 200 OK → " + currentUrl);
-                } else {
-                    brokenPages++;
-                    test.fail("🔴 FAILED (" + status + ") → " + currentUrl +
-                            " | Reason: " + getHttpError(status));
-                }
-
-                // Load page for crawling links
-                driver.get(currentUrl);
-                waitForPageLoad();
-
-                // Check title
-                String title = driver.getTitle();
-                if (title == null || title.isBlank()) {
-                    warningPages++;
-                    test.warning("⚠ Empty Title → " + currentUrl);
-                }
-
-                // Extract internal links
-                List<WebElement> links = driver.findElements(By.xpath("//a[@href]"));
-
-                for (WebElement link : links) {
-                    String url = link.getAttribute("href");
-
-                    if (isValidInternalUrl(url, baseUrl)) {
-                        if (!visitedUrls.contains(url)) {
-                            urlsToVisit.add(url);
-                        }
-                    }
-                }
-
-            } catch (Exception e) {
-                brokenPages++;
-                test.fail("❌ Error loading → " + currentUrl + " | Reason: " + e.getMessage());
-            }
-        }
-
-        // ===========================================
-        // 3. FINAL SUMMARY (TOP OF REPORT)
-        // ===========================================
-        summaryNode.info("📌 Total Pages Found: " + visitedUrls.size());
-        summaryNode.info("🟢 Working Pages: " + workingPages);
-        summaryNode.info("🔴 Broken Pages: " + brokenPages);
-        summaryNode.info("⚠ Pages with Warnings: " + warningPages);
-        summaryNode.info("⏩ Skipped Template Pages: " + skippedPages);
-        summaryNode.pass("✔ Crawl Completed Successfully.");
-    }
-
-
-    // ===========================================================
-    // Utility Methods
-    // ===========================================================
-
-    private boolean shouldSkipUrl(String url) {
-        if (url.contains("[") || url.contains("]")) return true;
-        if (url.contains("%22")) return true;
-        if (url.contains("AUD_BRAND")) return true;
-        if (url.contains("{{")) return true;
-        return false;
-    }
-
-    private boolean isValidInternalUrl(String url, String baseUrl) {
-        if (url == null || url.isBlank()) return false;
-        if (!url.startsWith("http")) return false;
-        if (url.contains("#")) return false;
-        if (shouldSkipUrl(url)) return false;
-        return url.startsWith(baseUrl);
-    }
-
-    private String readUrlFromCSV(String csvPath) throws Exception {
-        BufferedReader br = new BufferedReader(new FileReader(csvPath));
-        String line = br.readLine();
-        br.close();
-        return line.trim();
-    }
-
-    private int getStatusCode(String url) {
-        try {
-            URI uri = URI.create(url);
-            HttpURLConnection http = (HttpURLConnection) uri.toURL().openConnection();
-            http.setRequestMethod("GET");
-            http.setConnectTimeout(5000);
-            http.setReadTimeout(5000);
-            http.connect();
-            return http.getResponseCode();
-        } catch (Exception e) {
-            return -1;
-        }
-    }
-
-    private String getHttpError(int status) {
-        return switch (status) {
-            case -1 -> "Connection Failed (Timeout or Website Blocked)";
-            case 404 -> "Not Found";
-            case 500 -> "Server Error";
-            case 403 -> "Forbidden";
-            case 301, 302 -> "Redirected";
-            default -> "Unknown Error";
-        };
-    }
-
-    private void waitForPageLoad() {
-        try { Thread.sleep(1000); } catch (Exception ignored) {}
-    }
-}
+package tests;
+
+import org.openqa.selenium.*;
+import org.testng.annotations.Test;
+import com.aventstack.extentreports.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+import utils.CrawlCheckpoint;
+import utils.CrawlBudget;
+import utils.CrawlEngine;
+import utils.LinkValidator;
+import utils.PageReadiness;
+import utils.UrlCanonicalizer;
+import utils.WebDriverPool;
+
+public class FullSiteCrawlerTest extends BaseTest {
+
+    private int workingPages = 0;
+    private int brokenPages = 0;
+    private int warningPages = 0;
+    private int skippedPages = 0;
+
+    @Test
+    public void fullSiteCrawler() throws Exception {
+
+        // ===========================================
+        // SUMMARY NODE AT TOP OF REPORT
+        // ===========================================
+        ExtentTest summaryNode = extent.createTest("📊 Crawl Summary");
+
+        ExtentTest test = extent.createTest("Full Site Crawler – Validate Every Page Works");
+
+        // ===========================================
+        // 1. Load Base URL
+        // ===========================================
+        String csvPath = "src/test/resources/websiteurl.csv";
+        String baseUrl = readUrlFromCSV(csvPath);
+
+        test.info("Base URL → " + baseUrl);
+
+        // ===========================================
+        // 2. PARALLEL CRAWL (one Chrome per worker)
+        // ===========================================
+        // Journal the crawl; -Dcrawl.resume=true continues an interrupted run
+        CrawlCheckpoint checkpoint = CrawlCheckpoint.forCrawl("full-site-crawler", baseUrl);
+        if (checkpoint.isResumed()) {
+            test.info("♻ Resuming from checkpoint: " + checkpoint.finished().size()
+                    + " pages done, " + checkpoint.pending().size() + " pending");
+        }
+
+        // The engine hands canonical URLs to followWhen: compare them with the base in the same form
+        Predicate<String> internal = UrlCanonicalizer.under(baseUrl);
+
+        // -Dbudget.pages / .minutes can time-box the crawl
+        CrawlEngine engine = new CrawlEngine(CrawlEngine.browserWorkers())
+                .skipWhen(this::shouldSkipUrl)
+                .followWhen(url -> isValidInternalUrl(url, internal))
+                .budget(CrawlBudget.forSite(baseUrl, CrawlBudget.UNLIMITED))
+                .checkpointTo(checkpoint);
+
+        WebDriver baseDriver = getDriver();   // workers run on their own threads
+        AtomicBoolean baseDriverTaken = new AtomicBoolean(false);
+
+        engine.crawl(baseUrl,
+                () -> {
+                    // First worker uses this class's browser; the others only take browsers that are free
+                    if (baseDriverTaken.compareAndSet(false, true)) {
+                        return baseDriver != null
+                                ? new BrowserPageHandler(baseDriver, false)
+                                : new BrowserPageHandler(WebDriverPool.shared().lease(), true);
+                    }
+                    WebDriver extra = WebDriverPool.shared().tryLease();
+                    return extra == null ? null : new BrowserPageHandler(extra, true);
+                },
+                result -> reportPage(test, result));
+
+        // ===========================================
+        // 3. FINAL SUMMARY (TOP OF REPORT)
+        // ===========================================
+        summaryNode.info("📌 Total Pages Found: " + engine.visitedCount());
+        if (engine.stoppedEarly() != null) summaryNode.warning("⏱ Crawl stopped early: " + engine.stoppedEarly());
+        if (engine.disallowedCount() > 0) summaryNode.info("🤖 Links disallowed by robots.txt (not crawled): " + engine.disallowedCount());
+        summaryNode.info("🟢 Working Pages: " + workingPages);
+        summaryNode.info("🔴 Broken Pages: " + brokenPages);
+        summaryNode.info("⚠ Pages with Warnings: " + warningPages);
+        summaryNode.info("⏩ Skipped Template Pages: " + skippedPages);
+        summaryNode.pass("✔ Crawl Completed Successfully.");
+    }
+
+    // ===========================================================
+    // Crawl worker: HTTP status + Chrome load for link discovery
+    // ===========================================================
+    private class BrowserPageHandler implements CrawlEngine.PageHandler {
+
+        private final WebDriver browser;
+        private final boolean owned;
+
+        BrowserPageHandler(WebDriver browser, boolean owned) {
+            this.browser = browser;
+            this.owned = owned;
+        }
+
+        @Override
+        public CrawlEngine.PageResult fetch(String url) {
+            CrawlEngine.PageResult result = new CrawlEngine.PageResult(url);
+
+            // HTTP Status
+            result.status = LinkValidator.getStatus(url, "GET", 5000);
+
+            try {
+                // Load page for crawling links
+                browser.get(url);
+                PageReadiness.waitForPage(browser);
+
+                result.title = browser.getTitle();
+
+                // Extract internal links
+                for (WebElement link : browser.findElements(By.xpath("//a[@href]"))) {
+                    result.links.add(link.getAttribute("href"));
+                }
+            } catch (Exception e) {
+                result.error = e.getMessage();
+            }
+
+            return result;
+        }
+
+        @Override
+        public void close() {
+            if (owned) WebDriverPool.shared().release(browser);
+        }
+    }
+
+    private void reportPage(ExtentTest test, CrawlEngine.PageResult result) {
+
+        // Skip invalid Elementor template links
+        if (result.skipped) {
+            skippedPages++;
+            test.warning("⏩ Skipped invalid/template URL → " + result.url);
+            return;
+        }
+
+        test.info("🔍 Checking → " + result.url);
+
+        if (result.status == 200) {
+            workingPages++;
+            test.pass("🟢 200 OK → " + result.url);
+        } else {
+            brokenPages++;
+            test.fail("🔴 FAILED (" + result.status + ") → " + result.url +
+                    " | Reason: " + getHttpError(result.status));
+        }
+
+        if (result.error != null) {
+            brokenPages++;
+            test.fail("❌ Error loading → " + result.url + " | Reason: " + result.error);
+            return;
+        }
+
+        // Check title
+        if (result.title == null || result.title.isBlank()) {
+            warningPages++;
+            test.warning("⚠ Empty Title → " + result.url);
+        }
+    }
+
+
+    // ===========================================================
+    // Utility Methods
+    // ===========================================================
+
+    private boolean shouldSkipUrl(String url) {
+        if (url.contains("[") || url.contains("]")) return true;
+        if (url.contains("%22")) return true;
+        if (url.contains("AUD_BRAND")) return true;
+        if (url.contains("{{")) return true;
+        return false;
+    }
+
+    private boolean isValidInternalUrl(String url, Predicate<String> internal) {
+        if (url == null || url.isBlank()) return false;
+        if (!url.startsWith("http")) return false;
+        if (shouldSkipUrl(url)) return false;
+        return internal.test(url);
+    }
+
+    private String readUrlFromCSV(String csvPath) throws Exception {
+        BufferedReader br = new BufferedReader(new FileReader(csvPath));
+        String line = br.readLine();
+        br.close();
+        return line.trim();
+    }
+
+    private String getHttpError(int status) {
+        return switch (status) {
+            case 404 -> "Not Found";
+            case 500 -> "Server Error";
+            case 403 -> "Forbidden";
+            case 301, 302 -> "Redirected";
+            default -> status < 0 ? LinkValidator.getStatusMessage(status) : "Unknown Error";
+        };
+    }
+}
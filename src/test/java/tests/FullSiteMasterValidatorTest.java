@@ -1,226 +1,284 @@
-package tests;
-
-import org.openqa.selenium.*;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
-import org.testng.annotations.Test;
-
-import com.aventstack.extentreports.*;
-
-import javax.xml.parsers.DocumentBuilderFactory;
-import org.w3c.dom.*;
-
-import java.io.*;
-import java.net.HttpURLConnection;
-import java.net.URI;
-import java.time.Duration;
-import java.util.*;
-
-public class FullSiteMasterValidatorTest extends BaseTest {
-
-    // Storage
-    private Set<String> sitemapUrls = new HashSet<>();
-    private Set<String> crawlerUrls = new HashSet<>();
-    private Set<String> mergedUrls = new HashSet<>();
-
-    private Queue<String> crawlQueue = new LinkedList<>();
-
-    // Counters
-    private int working = 0, broken = 0, warnings = 0, skipped = 0, orphan = 0;
-
-    // Summary Node
-    private ExtentTest summary;
-
-    @Test
-    public void masterValidator() throws Exception {
-
-        summary = extent.createTest("📊 MASTER SITE VALIDATOR (Sitemap + Crawler)");
-
-        ExtentTest test = extent.createTest("Full Validation Process");
-
-        String csvPath = "src/test/resources/websiteurl.csv";
-        String baseUrl = readUrl(csvPath);
-
-        summary.info("🌐 Base URL → " + baseUrl);
-
-        // ================================
-        // 🚀 Step 1 — Load Sitemap.xml
-        // ================================
-        String sitemapUrl = baseUrl + (baseUrl.endsWith("/") ? "" : "/") + "sitemap.xml";
-
-        test.info("📖 Checking sitemap at: " + sitemapUrl);
-
-        try {
-            sitemapUrls = parseSitemap(sitemapUrl);
-            test.pass("📌 Sitemap URLs Found: " + sitemapUrls.size());
-        } catch (Exception e) {
-            test.warning("⚠ No sitemap.xml found. Skipping sitemap phase.");
-        }
-
-        // ================================
-        // 🚀 Step 2 — Crawl Website
-        // ================================
-        test.info("🔍 Starting crawler…");
-
-        crawlQueue.add(baseUrl);
-
-        while (!crawlQueue.isEmpty()) {
-            String url = crawlQueue.poll();
-
-            if (crawlerUrls.contains(url)) continue;
-            crawlerUrls.add(url);
-
-            if (shouldSkipUrl(url)) {
-                skipped++;
-                continue;
-            }
-
-            int status = getStatus(url);
-            if (status == 200) test.pass("🟢 " + url);
-            else test.fail("🔴 " + url + " → " + reason(status));
-
-            // Extract links
-            try {
-                driver.get(url);
-                waitForLoad();
-
-                List<WebElement> links = driver.findElements(By.xpath("//a[@href]"));
-
-                for (WebElement a : links) {
-                    String u = a.getAttribute("href");
-
-                    if (isInternal(u, baseUrl) && !crawlerUrls.contains(u)) {
-                        crawlQueue.add(u);
-                    }
-                }
-
-            } catch (Exception ignore) {}
-        }
-
-        test.info("🧭 Crawler Found Pages: " + crawlerUrls.size());
-
-        // ================================
-        // 🚀 Step 3 — Merge Sitemap + Crawler
-        // ================================
-        mergedUrls.addAll(sitemapUrls);
-        mergedUrls.addAll(crawlerUrls);
-
-        test.info("📌 Total Unique Merged Pages: " + mergedUrls.size());
-
-        // ================================
-        // 🚀 Step 4 — Validate All Pages
-        // ================================
-        for (String url : mergedUrls) {
-
-            if (shouldSkipUrl(url)) {
-                skipped++;
-                continue;
-            }
-
-            int code = getStatus(url);
-
-            if (code == 200) {
-                working++;
-            } else {
-                broken++;
-            }
-
-            // Orphan Pages (in sitemap but crawler did NOT find)
-            if (sitemapUrls.contains(url) && !crawlerUrls.contains(url)) {
-                orphan++;
-            }
-        }
-
-        // ================================
-        // 🚀 Step 5 — SUMMARY
-        // ================================
-        summary.info("====================================");
-        summary.info("📊 FINAL SUMMARY");
-        summary.info("====================================");
-        summary.info("📌 Sitemap URLs: " + sitemapUrls.size());
-        summary.info("📌 Crawler URLs: " + crawlerUrls.size());
-        summary.info("📌 Total Unique URLs: " + mergedUrls.size());
-        summary.info("------------------------------------");
-        summary.info("🟢 Working: " + working);
-        summary.info("🔴 Broken: " + broken);
-        summary.info("⚠ Warnings: " + warnings);
-        summary.info("⏩ Skipped: " + skipped);
-        summary.info("🧩 Orphan Pages: " + orphan);
-        summary.info("====================================");
-
-        summary.pass("✔ Master Validation Completed");
-    }
-
-    // --------------------------
-    // SITEMAP PARSER
-    // --------------------------
-    private Set<String> parseSitemap(String sitemapUrl) throws Exception {
-        Set<String> urls = new HashSet<>();
-
-        InputStream input = new URI(sitemapUrl).toURL().openStream();
-        Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(input);
-
-        NodeList locNodes = doc.getElementsByTagName("loc");
-
-        for (int i = 0; i < locNodes.getLength(); i++) {
-            urls.add(locNodes.item(i).getTextContent().trim());
-        }
-
-        return urls;
-    }
-
-    // --------------------------
-    // HELPERS
-    // --------------------------
-    private String readUrl(String path) throws Exception {
-        BufferedReader br = new BufferedReader(new FileReader(path));
-        String u = br.readLine();
-        br.close();
-        return u.trim();
-    }
-
-    private boolean shouldSkipUrl(String url) {
-        if (url == null) return true;
-        if (url.contains("#")) return true;
-        if (url.contains("[") || url.contains("]")) return true;
-        if (url.contains("%22")) return true;
-        if (url.contains("AUD_BRAND")) return true;
-        return false;
-    }
-
-    private boolean isInternal(String url, String base) {
-        if (url == null || url.isBlank()) return false;
-        return url.startsWith(base);
-    }
-
-    private int getStatus(String url) {
-        try {
-            URI uri = URI.create(url);
-            HttpURLConnection http = (HttpURLConnection) uri.toURL().openConnection();
-            http.setRequestMethod("GET");
-            http.setConnectTimeout(6000);
-            http.setReadTimeout(6000);
-            return http.getResponseCode();
-        } catch (Exception e) {
-            return -1;
-        }
-    }
-
-    private String reason(int status) {
-        return switch (status) {
-            case 200 -> "OK";
-            case 404 -> "Not Found";
-            case 500 -> "Server Error";
-            case 403 -> "Forbidden";
-            case -1 -> "Connection Failed / Blocked";
-            default -> "Unknown Error";
-        };
-    }
-
-    private void waitForLoad() {
-        try {
-            new WebDriverWait(driver, Duration.ofSeconds(5))
-                    .until(ExpectedConditions.presenceOfElementLocated(By.tagName("body")));
-        } catch (Exception ignored) {}
-    }
-}
+package tests;
+
+import org.openqa.selenium.*;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.WebDriverWait;
+import org.testng.annotations.Test;
+
+import com.aventstack.extentreports.*;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.w3c.dom.*;
+
+import java.io.*;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import utils.CrawlCheckpoint;
+import utils.CrawlBudget;
+import utils.CrawlEngine;
+import utils.LinkValidator;
+import utils.PagePriority;
+import utils.ResponseCache;
+import utils.SharedHttpClient;
+import utils.SitemapParser;
+import utils.UrlCanonicalizer;
+import utils.UrlIndex;
+import utils.WebDriverPool;
+
+public class FullSiteMasterValidatorTest extends BaseTest {
+
+    // Storage: each page's URL is held once (mergedUrls); membership and
+    // statuses live in compact hash indexes keyed by UrlCanonicalizer.key
+    private UrlIndex sitemapUrls = new UrlIndex();
+    private UrlIndex crawlerUrls = new UrlIndex();
+    private UrlIndex pageStatus = new UrlIndex();
+    private List<String> mergedUrls = new ArrayList<>();
+
+    // Counters
+    private int working = 0, broken = 0, warnings = 0, skipped = 0, orphan = 0;
+
+    // Summary Node
+    private ExtentTest summary;
+
+    @Test
+    public void masterValidator() throws Exception {
+
+        summary = extent.createTest("📊 MASTER SITE VALIDATOR (Sitemap + Crawler)");
+
+        ExtentTest test = extent.createTest("Full Validation Process");
+
+        String csvPath = "src/test/resources/websiteurl.csv";
+        String baseUrl = readUrl(csvPath);
+
+        summary.info("🌐 Base URL → " + baseUrl);
+
+        // ================================
+        // 🚀 Step 1 — Load Sitemap.xml
+        // ================================
+        String sitemapUrl = baseUrl + (baseUrl.endsWith("/") ? "" : "/") + "sitemap.xml";
+
+        test.info("📖 Checking sitemap at: " + sitemapUrl);
+
+        PagePriority priority = new PagePriority();
+        try {
+            List<SitemapParser.SitemapEntry> entries = parseSitemap(sitemapUrl);
+            priority.withSitemap(entries);
+            for (SitemapParser.SitemapEntry entry : entries) {
+                sitemapUrls.add(entry.loc);
+                if (pageStatus.add(entry.loc)) mergedUrls.add(entry.loc);
+            }
+            test.pass("📌 Sitemap URLs Found: " + sitemapUrls.size());
+        } catch (Exception e) {
+            test.warning("⚠ No sitemap.xml found. Skipping sitemap phase.");
+        }
+
+        // ================================
+        // 🚀 Step 2 — Crawl Website
+        // ================================
+        test.info("🔍 Starting crawler…");
+
+        // Journal the crawl; -Dcrawl.resume=true continues an interrupted run
+        CrawlCheckpoint checkpoint = CrawlCheckpoint.forCrawl("master-validator", baseUrl);
+        if (checkpoint.isResumed()) {
+            test.info("♻ Resuming from checkpoint: " + checkpoint.finished().size()
+                    + " pages done, " + checkpoint.pending().size() + " pending");
+        }
+
+        // High-priority sitemap pages and shallow pages first; -Dbudget.* can time-box the crawl
+        CrawlEngine engine = new CrawlEngine(CrawlEngine.browserWorkers())
+                .skipWhen(this::shouldSkipUrl)
+                .followWhen(u -> isInternal(u, baseUrl))
+                .prioritizeWith(priority)
+                .budget(CrawlBudget.forSite(baseUrl, CrawlBudget.UNLIMITED))
+                .checkpointTo(checkpoint);
+
+        WebDriver baseDriver = getDriver();   // workers run on their own threads
+        AtomicBoolean baseDriverTaken = new AtomicBoolean(false);
+
+        engine.crawl(baseUrl,
+                () -> {
+                    // First worker uses this class's browser; the others only take browsers that are free
+                    if (baseDriverTaken.compareAndSet(false, true)) {
+                        return baseDriver != null
+                                ? new BrowserPageHandler(baseDriver, false)
+                                : new BrowserPageHandler(WebDriverPool.shared().lease(), true);
+                    }
+                    WebDriver extra = WebDriverPool.shared().tryLease();
+                    return extra == null ? null : new BrowserPageHandler(extra, true);
+                },
+                result -> {
+                    crawlerUrls.add(result.url);
+                    if (pageStatus.add(result.url)) mergedUrls.add(result.url);   // Step 3 — merge as we go
+
+                    if (result.skipped) {
+                        skipped++;
+                        return;
+                    }
+                    if (result.status == 200) test.pass("🟢 " + result.url);
+                    else test.fail("🔴 " + result.url + " → " + reason(result.status));
+                });
+
+        test.info("🧭 Crawler Found Pages: " + crawlerUrls.size());
+        if (engine.stoppedEarly() != null) test.warning("⏱ Crawl stopped early: " + engine.stoppedEarly());
+        if (engine.disallowedCount() > 0) test.info("🤖 Links disallowed by robots.txt (not crawled): " + engine.disallowedCount());
+
+        // ================================
+        // 🚀 Step 3 — Merge Sitemap + Crawler (done while crawling)
+        // ================================
+        test.info("📌 Total Unique Merged Pages: " + mergedUrls.size());
+
+        // ================================
+        // 🚀 Step 4 — Validate All Pages
+        // ================================
+        for (String url : mergedUrls) {
+
+            if (shouldSkipUrl(url)) {
+                skipped++;
+                continue;
+            }
+
+            pageStatus.put(url, getStatus(url));
+
+            // Orphan Pages (in sitemap but crawler did NOT find)
+            if (sitemapUrls.contains(url) && !crawlerUrls.contains(url)) {
+                orphan++;
+            }
+        }
+        working = pageStatus.count(code -> code == 200);
+        broken = pageStatus.count(code -> code != 200);
+
+        // ================================
+        // 🚀 Step 5 — SUMMARY
+        // ================================
+        summary.info("====================================");
+        summary.info("📊 FINAL SUMMARY");
+        summary.info("====================================");
+        summary.info("📌 Sitemap URLs: " + sitemapUrls.size());
+        summary.info("📌 Crawler URLs: " + crawlerUrls.size());
+        summary.info("📌 Total Unique URLs: " + mergedUrls.size());
+        summary.info("------------------------------------");
+        summary.info("🟢 Working: " + working);
+        summary.info("🔴 Broken: " + broken);
+        summary.info("⚠ Warnings: " + warnings);
+        summary.info("⏩ Skipped: " + skipped);
+        summary.info("🧩 Orphan Pages: " + orphan);
+        summary.info("====================================");
+
+        summary.pass("✔ Master Validation Completed");
+    }
+
+    // --------------------------
+    // CRAWL WORKER (one Chrome each)
+    // --------------------------
+    private class BrowserPageHandler implements CrawlEngine.PageHandler {
+
+        private final WebDriver browser;
+        private final boolean owned;
+
+        BrowserPageHandler(WebDriver browser, boolean owned) {
+            this.browser = browser;
+            this.owned = owned;
+        }
+
+        @Override
+        public CrawlEngine.PageResult fetch(String url) {
+            CrawlEngine.PageResult result = new CrawlEngine.PageResult(url);
+            result.status = getStatus(url);
+
+            // Extract links
+            try {
+                browser.get(url);
+                waitForLoad(browser);
+
+                for (WebElement a : browser.findElements(By.xpath("//a[@href]"))) {
+                    result.links.add(a.getAttribute("href"));
+                }
+
+            } catch (Exception ignore) {}
+
+            return result;
+        }
+
+        @Override
+        public void close() {
+            if (owned) WebDriverPool.shared().release(browser);
+        }
+    }
+
+    // --------------------------
+    // SITEMAP PARSER
+    // --------------------------
+    private List<SitemapParser.SitemapEntry> parseSitemap(String sitemapUrl) throws Exception {
+        List<SitemapParser.SitemapEntry> entries = new ArrayList<>();
+
+        ResponseCache.Entry response = ResponseCache.shared().fetch(sitemapUrl, SharedHttpClient.requestTimeoutMs());
+
+        Document doc;
+        try (InputStream input = response.openBody()) {
+            doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(input);
+        }
+
+        NodeList locNodes = doc.getElementsByTagName("loc");
+
+        for (int i = 0; i < locNodes.getLength(); i++) {
+            SitemapParser.SitemapEntry entry = new SitemapParser.SitemapEntry();
+            entry.loc = UrlCanonicalizer.canonical(locNodes.item(i).getTextContent());
+
+            // <priority> is a sibling of <loc> inside the same <url>
+            NodeList siblings = locNodes.item(i).getParentNode().getChildNodes();
+            for (int j = 0; j < siblings.getLength(); j++) {
+                if ("priority".equals(siblings.item(j).getNodeName())) entry.priority = siblings.item(j).getTextContent();
+            }
+            entries.add(entry);
+        }
+
+        return entries;
+    }
+
+    // --------------------------
+    // HELPERS
+    // --------------------------
+    private String readUrl(String path) throws Exception {
+        BufferedReader br = new BufferedReader(new FileReader(path));
+        String u = br.readLine();
+        br.close();
+        return u.trim();
+    }
+
+    private boolean shouldSkipUrl(String url) {
+        if (url == null) return true;
+        if (url.contains("#")) return true;
+        if (url.contains("[") || url.contains("]")) return true;
+        if (url.contains("%22")) return true;
+        if (url.contains("AUD_BRAND")) return true;
+        return false;
+    }
+
+    private boolean isInternal(String url, String base) {
+        if (url == null || url.isBlank()) return false;
+        return url.startsWith(base);
+    }
+
+    private int getStatus(String url) {
+        return LinkValidator.getStatus(url, "GET", 6000);
+    }
+
+    private String reason(int status) {
+        return switch (status) {
+            case 200 -> "OK";
+            case 404 -> "Not Found";
+            case 500 -> "Server Error";
+            case 403 -> "Forbidden";
+            default -> status < 0 ? LinkValidator.getStatusMessage(status) : "Unknown Error";
+        };
+    }
+
+    private void waitForLoad(WebDriver browser) {
+        try {
+            new WebDriverWait(browser, Duration.ofSeconds(5))
+                    .until(ExpectedConditions.presenceOfElementLocated(By.tagName("body")));
+        } catch (Exception ignored) {}
+    }
+}
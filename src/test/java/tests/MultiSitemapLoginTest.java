@@ -1,193 +1,193 @@
-package tests;
-
-import utils.SiteConfigReader;
-
-import com.aventstack.extentreports.ExtentTest;
-import com.aventstack.extentreports.Status;
-
-import org.openqa.selenium.*;
-import org.openqa.selenium.io.FileHandler;
-import org.testng.annotations.*;
-
-import java.io.File;
-import java.text.SimpleDateFormat;
-import java.util.*;
-
-public class MultiSitemapLoginTest extends BaseTest {
-
-    List<String[]> websites;
-    ExtentTest test;
-
-    int totalUrls = 0;
-    int loadedCount = 0;
-    int redirectCount = 0;
-    int failedCount = 0;
-    int warningCount = 0;
-
-    @BeforeClass
-    public void initializeTest() {
-        setupDriver();   // Start driver (headless)
-        websites = SiteConfigReader.readConfig("src/test/resources/websites01.txt");
-    }
-
-    @Test
-    public void validateLoginRequiredSitemap() throws Exception {
-
-        for (String[] site : websites) {
-
-            totalUrls = loadedCount = redirectCount = failedCount = warningCount = 0;
-
-            String websiteUrl = site[0];
-            String username = site[1];
-            String password = site[2];
-            String sitemapUrl = site[3];
-
-            // Build authenticated URL (Basic Auth)
-            String authUrl = websiteUrl.replace("https://",
-                    "https://" + username + ":" + password + "@");
-
-         
-            test = extent.createTest("Validate Sitemap (Login Required): " + websiteUrl);
-
-            test.log(Status.INFO, "Opening website using Basic Auth: " + authUrl);
-            logInfo("Opening website using Basic Auth: " + authUrl);
-
-            driver.get(authUrl);
-            Thread.sleep(2500);
-
-            test.log(Status.PASS, "Logged in successfully (Basic Auth).");
-            logPass("Logged in successfully (Basic Auth).");
-
-      
-            test.log(Status.INFO, "Opening sitemap: " + sitemapUrl);
-            logInfo("Opening sitemap: " + sitemapUrl);
-
-            driver.get(sitemapUrl);
-            Thread.sleep(2000);
-
-            List<String> allUrls = collectSitemapUrls();
-            totalUrls = allUrls.size();
-
-            test.log(Status.INFO, "Found " + totalUrls + " URLs in sitemap.");
-            logInfo("Found " + totalUrls + " URLs in sitemap.");
-
-            for (String url : allUrls) {
-                validateUrl(url);
-            }
-
-            int working = loadedCount + redirectCount;
-            int broken = failedCount;
-
-            String summaryLine = "Summary → Total: " + totalUrls +
-                    " | Working: " + working +
-                    " | Broken: " + broken;
-
-            test.log(Status.INFO, summaryLine);
-
-            System.out.println("\n===== SUMMARY =====");
-            System.out.println("Total URLs: " + totalUrls);
-            System.out.println("Working: " + working);
-            System.out.println("Broken: " + broken);
-            System.out.println("===================\n");
-        }
-    }
-
-    public List<String> collectSitemapUrls() {
-
-        List<WebElement> links = driver.findElements(By.xpath("//a[@href]"));
-        List<String> urls = new ArrayList<>();
-
-        for (WebElement el : links) {
-            String href = el.getAttribute("href");
-            if (href != null && href.startsWith("http")) {
-                urls.add(href.trim());
-            }
-        }
-
-        return urls;
-    }
-
-    public void validateUrl(String url) {
-        try {
-            driver.navigate().to(url);
-            Thread.sleep(700);
-
-            String current = driver.getCurrentUrl();
-
-            String cleanOriginal = url.replaceAll("/$", "");
-            String cleanCurrent = current.replaceAll("/$", "");
-
-            if (cleanOriginal.equalsIgnoreCase(cleanCurrent)) {
-
-                loadedCount++;
-                String message = url + " → Loaded Successfully";
-
-                test.log(Status.PASS, message);
-                logPass(message);
-                return;
-            }
-
-            if (driver.getTitle() != null &&
-                !driver.getTitle().contains("404") &&
-                !driver.getPageSource().toLowerCase().contains("not found")) {
-
-                redirectCount++;
-                String message = url + " → Redirected To → " + current + " (Working)";
-
-                test.log(Status.WARNING, message);
-                logInfo(message);
-                return;
-            }
-
-          
-            failedCount++;
-            String message = url + " → Failed To Load";
-
-            test.log(Status.FAIL, message + attachScreenshot());
-            logFail(message);
-
-        } catch (Exception e) {
-
-            failedCount++;
-            String message = url + " → Failed Due To Exception";
-
-            test.log(Status.FAIL, message + attachScreenshot());
-            logFail(message);
-        }
-    }
-
-    
-    public String attachScreenshot() {
-        try {
-            File src = ((TakesScreenshot) driver).getScreenshotAs(OutputType.FILE);
-            String path = "report/screenshots/" + System.currentTimeMillis() + ".png";
-
-            new File("report/screenshots").mkdirs();
-            FileHandler.copy(src, new File(path));
-
-            return test.addScreenCaptureFromPath(path).toString();
-
-        } catch (Exception e) {
-            return "";
-        }
-    }
-
- 
-    public void logInfo(String msg) {
-        System.out.println(getTimestamp() + "  INFO  " + msg);
-    }
-
-    public void logPass(String msg) {
-        System.out.println(getTimestamp() + "  PASS  " + msg);
-    }
-
-    public void logFail(String msg) {
-        System.out.println(getTimestamp() + "  FAIL  " + msg);
-    }
-
-    public String getTimestamp() {
-        SimpleDateFormat sdf = new SimpleDateFormat("hh:mm:ss a");
-        return sdf.format(new Date());
-    }
-}
-
+package tests;
+
+import utils.SiteConfigReader;
+import utils.PageReadiness;
+
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.Status;
+
+import org.openqa.selenium.*;
+import org.openqa.selenium.io.FileHandler;
+import org.testng.annotations.*;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.*;
+
+public class MultiSitemapLoginTest extends BaseTest {
+
+    List<String[]> websites;
+    ExtentTest test;
+
+    int totalUrls = 0;
+    int loadedCount = 0;
+    int redirectCount = 0;
+    int failedCount = 0;
+    int warningCount = 0;
+
+    @BeforeClass
+    public void initializeTest() {
+        websites = SiteConfigReader.readConfig("src/test/resources/websites01.txt");
+    }
+
+    @Test
+    public void validateLoginRequiredSitemap() throws Exception {
+
+        for (String[] site : websites) {
+
+            totalUrls = loadedCount = redirectCount = failedCount = warningCount = 0;
+
+            String websiteUrl = site[0];
+            String username = site[1];
+            String password = site[2];
+            String sitemapUrl = site[3];
+
+            // Build authenticated URL (Basic Auth)
+            String authUrl = websiteUrl.replace("https://",
+                    "https://" + username + ":" + password + "@");
+
+         
+            test = extent.createTest("Validate Sitemap (Login Required): " + websiteUrl);
+
+            test.log(Status.INFO, "Opening website using Basic Auth: " + authUrl);
+            logInfo("Opening website using Basic Auth: " + authUrl);
+
+            getDriver().get(authUrl);
+            PageReadiness.waitForPage(getDriver());
+
+            test.log(Status.PASS, "Logged in successfully (Basic Auth).");
+            logPass("Logged in successfully (Basic Auth).");
+
+      
+            test.log(Status.INFO, "Opening sitemap: " + sitemapUrl);
+            logInfo("Opening sitemap: " + sitemapUrl);
+
+            getDriver().get(sitemapUrl);
+            PageReadiness.waitForPage(getDriver());
+
+            List<String> allUrls = collectSitemapUrls();
+            totalUrls = allUrls.size();
+
+            test.log(Status.INFO, "Found " + totalUrls + " URLs in sitemap.");
+            logInfo("Found " + totalUrls + " URLs in sitemap.");
+
+            for (String url : allUrls) {
+                validateUrl(url);
+            }
+
+            int working = loadedCount + redirectCount;
+            int broken = failedCount;
+
+            String summaryLine = "Summary → Total: " + totalUrls +
+                    " | Working: " + working +
+                    " | Broken: " + broken;
+
+            test.log(Status.INFO, summaryLine);
+
+            System.out.println("\n===== SUMMARY =====");
+            System.out.println("Total URLs: " + totalUrls);
+            System.out.println("Working: " + working);
+            System.out.println("Broken: " + broken);
+            System.out.println("===================\n");
+        }
+    }
+
+    public List<String> collectSitemapUrls() {
+
+        List<WebElement> links = getDriver().findElements(By.xpath("//a[@href]"));
+        List<String> urls = new ArrayList<>();
+
+        for (WebElement el : links) {
+            String href = el.getAttribute("href");
+            if (href != null && href.startsWith("http")) {
+                urls.add(href.trim());
+            }
+        }
+
+        return urls;
+    }
+
+    public void validateUrl(String url) {
+        try {
+            getDriver().navigate().to(url);
+            PageReadiness.waitForPage(getDriver());
+
+            String current = getDriver().getCurrentUrl();
+
+            String cleanOriginal = url.replaceAll("/$", "");
+            String cleanCurrent = current.replaceAll("/$", "");
+
+            if (cleanOriginal.equalsIgnoreCase(cleanCurrent)) {
+
+                loadedCount++;
+                String message = url + " → Loaded Successfully";
+
+                test.log(Status.PASS, message);
+                logPass(message);
+                return;
+            }
+
+            if (getDriver().getTitle() != null &&
+                !getDriver().getTitle().contains("404") &&
+                !getDriver().getPageSource().toLowerCase().contains("not found")) {
+
+                redirectCount++;
+                String message = url + " → Redirected To → " + current + " (Working)";
+
+                test.log(Status.WARNING, message);
+                logInfo(message);
+                return;
+            }
+
+          
+            failedCount++;
+            String message = url + " → Failed To Load";
+
+            test.log(Status.FAIL, message + attachScreenshot());
+            logFail(message);
+
+        } catch (Exception e) {
+
+            failedCount++;
+            String message = url + " → Failed Due To Exception";
+
+            test.log(Status.FAIL, message + attachScreenshot());
+            logFail(message);
+        }
+    }
+
+    
+    public String attachScreenshot() {
+        try {
+            File src = ((TakesScreenshot) getDriver()).getScreenshotAs(OutputType.FILE);
+            String path = "report/screenshots/" + System.currentTimeMillis() + ".png";
+
+            new File("report/screenshots").mkdirs();
+            FileHandler.copy(src, new File(path));
+
+            return test.addScreenCaptureFromPath(path).toString();
+
+        } catch (Exception e) {
+            return "";
+        }
+    }
+
+ 
+    public void logInfo(String msg) {
+        System.out.println(getTimestamp() + "  INFO  " + msg);
+    }
+
+    public void logPass(String msg) {
+        System.out.println(getTimestamp() + "  PASS  " + msg);
+    }
+
+    public void logFail(String msg) {
+        System.out.println(getTimestamp() + "  FAIL  " + msg);
+    }
+
+    public String getTimestamp() {
+        SimpleDateFormat sdf = new SimpleDateFormat("hh:mm:ss a");
+        return sdf.format(new Date());
+    }
+}
+
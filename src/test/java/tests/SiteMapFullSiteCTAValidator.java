@@ -1,227 +1,233 @@
-package tests;
-
-import utils.SiteConfigReader;
-
-import java.io.File;
-import java.net.URI;
-import java.util.*;
-import org.openqa.selenium.*;
-import org.openqa.selenium.io.FileHandler;
-import org.openqa.selenium.JavascriptExecutor;
-import org.testng.annotations.Test;
-import com.aventstack.extentreports.*;
-
-
-public class SiteMapFullSiteCTAValidator extends BaseTest {
-
-    private static final int MAX_PAGES = 1;
-
-    @Test
-    public void runSitemapFullValidation() {
-
-        String configPath = "src/test/resources/headerfooter_websites.csv";
-        List<String[]> sites = SiteConfigReader.readConfig(configPath);
-
-        for (String[] site : sites) {
-
-            
-            String sitemapUrl = site[0].trim();
-
-            String baseUrl = "https://" + URI.create(sitemapUrl).getHost();
-
-            ExtentTest siteTest = extent.createTest(" Website Validation → " + sitemapUrl);
-
-            try {
-
-                driver.get(sitemapUrl);
-                Thread.sleep(1500);
-
-                List<String> urls = extractSitemapLinks(baseUrl);
-                siteTest.info("Total URLs found in sitemap: " + urls.size());
-
-                urls = urls.subList(0, Math.min(MAX_PAGES, urls.size()));
-
-                for (String pageUrl : urls) {
-
-                    ExtentTest pageNode = siteTest.createNode("📄 Page: " + pageUrl);
-
-                    try {
-                        driver.get(pageUrl);
-                        Thread.sleep(1000);
-
-                        scrollPage();
-
-                        validateCTAs(pageNode);
-                   
-
-                        pageNode.pass(" Page Validation Completed");
-
-                    } catch (Exception e) {
-                        pageNode.warning(" Page Validation Issue → " + e.getMessage());
-                        pageNode.info("Screenshot: " + captureScreenshot(pageUrl));
-                    }
-                }
-
-            } catch (Exception e) {
-                siteTest.warning(" Site execution warning → " + e.getMessage());
-            }
-        }
-
-        extent.flush();
-    }
-
-    
-    private List<String> extractSitemapLinks(String baseUrl) {
-
-        List<String> urls = new ArrayList<>();
-        String domain = URI.create(baseUrl).getHost();
-
-       
-        List<WebElement> locTags = driver.findElements(By.tagName("loc"));
-        if (!locTags.isEmpty()) {
-            for (WebElement e : locTags) {
-                String url = e.getText().trim();
-                if (url.contains(domain)) urls.add(url);
-            }
-            return urls;
-        }
-
-        List<WebElement> anchors = driver.findElements(By.xpath("//a[@href]"));
-        for (WebElement a : anchors) {
-            String href = a.getAttribute("href");
-            if (href != null && href.contains(domain)) {
-                urls.add(href);
-            }
-        }
-
-        return urls;
-    }
-
-   
-
-    class CTAItem {
-        String name, href, color, font, weight, padding, radius;
-        boolean icon;
-    }
-
-    private void validateCTAs(ExtentTest pageNode) {
-
-        List<CTAItem> items = new ArrayList<>();
-
-        List<WebElement> buttons = driver.findElements(
-                By.xpath("//*[@onclick or @role='button' or name()='a' or name()='button']")
-        );
-
-        pageNode.info("Total CTA elements found → " + buttons.size());
-
-        for (WebElement el : buttons) {
-            try {
-                CTAItem c = new CTAItem();
-
-                c.href = el.getAttribute("href");
-                c.name = extractCTAName(el, c.href);
-
-                if (c.name.equalsIgnoreCase("Accessibility Menu") ||
-                    c.name.equalsIgnoreCase("Translations Menu"))
-                    continue;
-
-                c.color = el.getCssValue("color");
-                c.font = el.getCssValue("font-size");
-                c.weight = el.getCssValue("font-weight");
-                c.padding = el.getCssValue("padding");
-                c.radius = el.getCssValue("border-radius");
-                c.icon = hasIcon(el);
-
-                items.add(c);
-
-            } catch (Exception ignored) {}
-        }
-
-        for (CTAItem c : items) {
-
-            ExtentTest cNode = pageNode.createNode("CTA: " + c.name);
-
-            cNode.info("UI → Color=" + c.color +
-                    ", Font=" + c.font +
-                    ", Weight=" + c.weight +
-                    ", Padding=" + c.padding +
-                    ", Radius=" + c.radius +
-                    ", Icon=" + c.icon);
-
-            if (c.href == null || c.href.isEmpty()) {
-                cNode.warning(" Not clickable");
-                continue;
-            }
-
-            try {
-                driver.navigate().to(c.href);
-                Thread.sleep(700);
-                cNode.pass(" CTA Working");
-
-                driver.navigate().back();
-                Thread.sleep(350);
-
-            } catch (Exception ex) {
-                cNode.warning(" CTA Navigation Issue → " + ex.getMessage());
-            }
-        }
-    }
-
-    private String extractCTAName(WebElement el, String href) {
-
-        try { if (!el.getText().trim().isEmpty()) return el.getText().trim(); } catch (Exception ignored) {}
-
-        String aria = el.getAttribute("aria-label");
-        if (aria != null && !aria.trim().isEmpty()) return aria;
-
-        String alt = el.getAttribute("alt");
-        if (alt != null && !alt.trim().isEmpty()) return alt;
-
-        String title = el.getAttribute("title");
-        if (title != null && !title.trim().isEmpty()) return title;
-
-        if (href != null) {
-            try {
-                String p = URI.create(href).getPath();
-                if (p != null) return p.replace("/", "").replace("-", " ").trim();
-            } catch (Exception ignored) {}
-        }
-
-        return "Unnamed CTA";
-    }
-
-    private boolean hasIcon(WebElement el) {
-        try {
-            return el.findElements(By.tagName("svg")).size() > 0 ||
-                   el.findElements(By.tagName("img")).size() > 0 ||
-                   el.getAttribute("class").contains("fa-") ||
-                   el.getAttribute("class").contains("icon");
-        } catch (Exception e) {
-            return false;
-        }
-    }
-
-
-    private String captureScreenshot(String url) {
-        try {
-            File src = ((TakesScreenshot) driver).getScreenshotAs(OutputType.FILE);
-            String dir = "report/screenshots";
-            new File(dir).mkdirs();
-            String path = dir + "/" + System.currentTimeMillis() + ".png";
-            FileHandler.copy(src, new File(path));
-            return path;
-        } catch (Exception e) {
-            return "";
-        }
-    }
-
-    private void scrollPage() throws InterruptedException {
-        JavascriptExecutor js = (JavascriptExecutor) driver;
-        long height = (long) js.executeScript("return document.body.scrollHeight");
-        js.executeScript("window.scrollTo(0, arguments[0])", height);
-        Thread.sleep(500);
-    }
-
-    
-}
-
+package tests;
+
+import utils.SiteConfigReader;
+import utils.LinkResult;
+import utils.CTASnapshot;
+import utils.CTAVerifier;
+import utils.PageReadiness;
+
+import java.io.File;
+import java.net.URI;
+import java.util.*;
+import org.openqa.selenium.*;
+import org.openqa.selenium.io.FileHandler;
+import org.openqa.selenium.JavascriptExecutor;
+import org.testng.annotations.Test;
+import com.aventstack.extentreports.*;
+
+
+public class SiteMapFullSiteCTAValidator extends BaseTest {
+
+    private static final int MAX_PAGES = 1;
+
+    @Test
+    public void runSitemapFullValidation() {
+
+        String configPath = "src/test/resources/headerfooter_websites.csv";
+        List<String[]> sites = SiteConfigReader.readConfig(configPath);
+
+        for (String[] site : sites) {
+
+            
+            String sitemapUrl = site[0].trim();
+
+            String baseUrl = "https://" + URI.create(sitemapUrl).getHost();
+
+            ExtentTest siteTest = extent.createTest(" Website Validation → " + sitemapUrl);
+
+            try {
+
+                getDriver().get(sitemapUrl);
+                PageReadiness.waitForPage(getDriver());
+
+                List<String> urls = extractSitemapLinks(baseUrl);
+                siteTest.info("Total URLs found in sitemap: " + urls.size());
+
+                urls = urls.subList(0, Math.min(MAX_PAGES, urls.size()));
+
+                for (String pageUrl : urls) {
+
+                    ExtentTest pageNode = siteTest.createNode("📄 Page: " + pageUrl);
+
+                    try {
+                        getDriver().get(pageUrl);
+                        PageReadiness.waitForPage(getDriver());
+
+                        scrollPage();
+
+                        validateCTAs(pageNode);
+                   
+
+                        pageNode.pass(" Page Validation Completed");
+
+                    } catch (Exception e) {
+                        pageNode.warning(" Page Validation Issue → " + e.getMessage());
+                        pageNode.info("Screenshot: " + captureScreenshot(pageUrl));
+                    }
+                }
+
+            } catch (Exception e) {
+                siteTest.warning(" Site execution warning → " + e.getMessage());
+            }
+        }
+
+        extent.flush();
+    }
+
+    
+    private List<String> extractSitemapLinks(String baseUrl) {
+
+        List<String> urls = new ArrayList<>();
+        String domain = URI.create(baseUrl).getHost();
+
+       
+        List<WebElement> locTags = getDriver().findElements(By.tagName("loc"));
+        if (!locTags.isEmpty()) {
+            for (WebElement e : locTags) {
+                String url = e.getText().trim();
+                if (url.contains(domain)) urls.add(url);
+            }
+            return urls;
+        }
+
+        List<WebElement> anchors = getDriver().findElements(By.xpath("//a[@href]"));
+        for (WebElement a : anchors) {
+            String href = a.getAttribute("href");
+            if (href != null && href.contains(domain)) {
+                urls.add(href);
+            }
+        }
+
+        return urls;
+    }
+
+   
+
+    class CTAItem {
+        String name, href, color, font, weight, padding, radius;
+        boolean icon;
+    }
+
+    private void validateCTAs(ExtentTest pageNode) {
+
+        List<CTAItem> items = new ArrayList<>();
+
+        List<CTASnapshot.CTA> ctas = CTASnapshot.capture(getDriver());
+
+        pageNode.info("Total CTA elements found → " + ctas.size());
+
+        for (CTASnapshot.CTA cta : ctas) {
+            try {
+                CTAItem c = new CTAItem();
+
+                c.href = cta.href;
+                c.name = extractCTAName(cta);
+
+                if (c.name.equalsIgnoreCase("Accessibility Menu") ||
+                    c.name.equalsIgnoreCase("Translations Menu"))
+                    continue;
+
+                c.color = cta.color;
+                c.font = cta.fontSize;
+                c.weight = cta.fontWeight;
+                c.padding = cta.padding;
+                c.radius = cta.borderRadius;
+                c.icon = cta.hasIcon();
+
+                items.add(c);
+
+            } catch (Exception ignored) {}
+        }
+
+        CTAVerifier verifier = new CTAVerifier().prefetch(items, c -> c.href);
+
+        for (CTAItem c : items) {
+
+            ExtentTest cNode = pageNode.createNode("CTA: " + c.name);
+
+            cNode.info("UI → Color=" + c.color +
+                    ", Font=" + c.font +
+                    ", Weight=" + c.weight +
+                    ", Padding=" + c.padding +
+                    ", Radius=" + c.radius +
+                    ", Icon=" + c.icon);
+
+            if (c.href == null || c.href.isEmpty()) {
+                cNode.warning(" Not clickable");
+                continue;
+            }
+
+            if (verifier.checksOverHttp(c.href)) {
+                LinkResult d = verifier.verify(c.href);
+                if (d.isOk()) {
+                    cNode.pass(" CTA Working" + (d.redirected() ? " → " + d.finalUrl : ""));
+                } else {
+                    cNode.warning(" CTA Navigation Issue → " + d.describe());
+                }
+                continue;
+            }
+
+            try {
+                getDriver().navigate().to(c.href);
+                PageReadiness.waitForPage(getDriver());
+                cNode.pass(" CTA Working");
+
+                getDriver().navigate().back();
+                PageReadiness.waitForPage(getDriver());
+
+            } catch (Exception ex) {
+                cNode.warning(" CTA Navigation Issue → " + ex.getMessage());
+            }
+        }
+    }
+
+    private String extractCTAName(CTASnapshot.CTA cta) {
+
+        String href = cta.href;
+
+        if (!cta.text.isEmpty()) return cta.text;
+
+        String aria = cta.ariaLabel;
+        if (aria != null && !aria.trim().isEmpty()) return aria;
+
+        String alt = cta.alt;
+        if (alt != null && !alt.trim().isEmpty()) return alt;
+
+        String title = cta.title;
+        if (title != null && !title.trim().isEmpty()) return title;
+
+        if (href != null) {
+            try {
+                String p = URI.create(href).getPath();
+                if (p != null) return p.replace("/", "").replace("-", " ").trim();
+            } catch (Exception ignored) {}
+        }
+
+        return "Unnamed CTA";
+    }
+
+
+
+    private String captureScreenshot(String url) {
+        try {
+            File src = ((TakesScreenshot) getDriver()).getScreenshotAs(OutputType.FILE);
+            String dir = "report/screenshots";
+            new File(dir).mkdirs();
+            String path = dir + "/" + System.currentTimeMillis() + ".png";
+            FileHandler.copy(src, new File(path));
+            return path;
+        } catch (Exception e) {
+            return "";
+        }
+    }
+
+    private void scrollPage() throws InterruptedException {
+        JavascriptExecutor js = (JavascriptExecutor) getDriver();
+        long height = (long) js.executeScript("return document.body.scrollHeight");
+        js.executeScript("window.scrollTo(0, arguments[0])", height);
+        PageReadiness.settle(getDriver(), 1500);
+    }
+
+    
+}
+
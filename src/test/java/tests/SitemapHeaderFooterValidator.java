@@ -1,399 +1,443 @@
-package tests;
-
-import java.io.File;
-import java.io.IOException;
-import java.text.SimpleDateFormat;
-import java.util.*;
-import org.apache.commons.io.FileUtils;
-import org.openqa.selenium.*;
-import org.testng.annotations.Test;
-import com.aventstack.extentreports.*;
-
-
-
-public class SitemapHeaderFooterValidator extends BaseTest {
-
-    private static final int MAX_PAGES = 1;
-    private static final double FUZZY_THRESHOLD = 0.80;
-
-   
-    public static int totalPages = 0, passCount = 0, failCount = 0, warningCount = 0;
-
-    @Test
-    public void verifySitemapLinksHeaderFooter() {
-        String csvPath = System.getProperty("user.dir") + "/src/test/resources/client_brief04.csv";
-        List<ExcelReader.ClientData> clients = ExcelReader.getClientData(csvPath);
-
-        
-        for (ExcelReader.ClientData client : clients) {
-            ExtentTest siteTest = extent.createTest("Website: " + client.website);
-
-            int sitePages = 0, sitePass = 0, siteFail = 0, siteWarn = 0;
-
-            try {
-                setupDriver();
-
-               
-                String sitemapUrl = client.website + (client.website.endsWith("/") ? "" : "/") + "sitemap/";
-                driver.get(sitemapUrl);
-                Thread.sleep(2000);
-                scrollToBottom();
-
-               
-                Set<String> pageLinks = collectInternalLinks(client.website);
-
-                siteTest.info("Total links found in sitemap: " + pageLinks.size());
-
-                if (pageLinks.isEmpty()) {
-                    siteTest.warning("No links found in sitemap, fallback to homepage.");
-                    warningCount++;
-                    siteWarn++;
-                    pageLinks.add(client.website);
-                }
-
-                int checked = 0;
-                for (String pageUrl : pageLinks) {
-
-                    if (checked++ >= MAX_PAGES) break;
-                    totalPages++;
-                    sitePages++;
-
-                    ExtentTest pageNode = siteTest.createNode(" Page: " + pageUrl);
-
-                    try {
-                        driver.get(pageUrl);
-                        scrollToBottom();
-
-                        
-                        String fullText = getFullSearchableText();
-
-                       
-                        boolean namePass = checkCompanyNameAndLogo(client, fullText, pageNode, pageUrl);
-                        boolean phonePass = checkPhoneNumbers(client, fullText, pageNode, pageUrl);
-                        boolean addressPass = checkAddresses(client, fullText, pageNode, pageUrl);
-                        boolean hoursPass = checkHours(client, fullText, pageNode, pageUrl);
-
-                        boolean shouldFail = false;
-
-                        if (!client.companyName.isEmpty() && !namePass) shouldFail = true;
-                        if (!client.phone.isEmpty() && !phonePass) shouldFail = true;
-                        if (!client.address.isEmpty() && !addressPass) shouldFail = true;
-                        if (!client.hours.isEmpty() && !hoursPass) shouldFail = true;
-
-                        if (!shouldFail) {
-                            passCount++;
-                            sitePass++;
-                            pageNode.pass(" Page validation passed.");
-                        } else {
-                            failCount++;
-                            siteFail++;
-                            pageNode.fail(" Page validation failed.");
-                        }
-
-                    } catch (Exception ex) {
-                        failCount++;
-                        siteFail++;
-                        pageNode.fail("Error handling page: " + ex.getMessage());
-                    }
-                }
-
-               
-                siteTest.info(
-                        "Summary :\n" +
-                        "Pages Scanned: " + sitePages +
-                        " | Passed: " + sitePass +
-                        " | Failed: " + siteFail +
-                        " | Warnings: " + siteWarn
-                );
-
-                driver.quit();
-
-            } catch (Exception e) {
-                siteTest.fail("Error reading sitemap: " + e.getMessage());
-                driver.quit();
-            }
-        }
-
-    }
-   
-
-    private String normalize(String text) {
-        if (text == null) return "";
-        String t = text.replaceAll("(?i)<br\\s*/?>", " ");
-        t = t.replaceAll("<[^>]+>", " ");
-        t = t.replaceAll("[^a-zA-Z0-9 ]", " ");
-        t = t.toLowerCase();
-        t = t.replaceAll("\\s+", " ").trim();
-        return t;
-    }
-
-    private String getSectionText(String xpath) {
-        try {
-            WebElement sec = driver.findElement(By.xpath(xpath));
-            return normalize(sec.getText());
-        } catch (Exception e) {
-            return "";
-        }
-    }
-
-    private String getFullSearchableText() {
-        return normalize(
-                getSectionText("//header") + " " +
-                getSectionText("//footer") + " " +
-                driver.getPageSource()
-        );
-    }
-
-  
-
-    private boolean fuzzyMatch(String a, String b) {
-        a = normalize(a);
-        b = normalize(b);
-
-        int dist = levenshtein(a, b);
-        int max = Math.max(a.length(), b.length());
-
-        double similarity = 1.0 - ((double) dist / max);
-        return similarity >= FUZZY_THRESHOLD;
-    }
-
-    private int levenshtein(String a, String b) {
-        int[][] dp = new int[a.length() + 1][b.length() + 1];
-
-        for (int i = 0; i <= a.length(); i++) dp[i][0] = i;
-        for (int j = 0; j <= b.length(); j++) dp[0][j] = j;
-
-        for (int i = 1; i <= a.length(); i++) {
-            for (int j = 1; j <= b.length(); j++) {
-                int cost = (a.charAt(i - 1) == b.charAt(j - 1)) ? 0 : 1;
-                dp[i][j] = Math.min(
-                        dp[i - 1][j] + 1,
-                        Math.min(dp[i][j - 1] + 1, dp[i - 1][j - 1] + cost)
-                );
-            }
-        }
-        return dp[a.length()][b.length()];
-    }
-
- 
-
-    private boolean checkCompanyNameAndLogo(ExcelReader.ClientData client, String fullText,
-                                            ExtentTest test, String url) {
-        boolean found = false;
-
-        try {
-            if (client.companyName.isEmpty()) return true;
-
-            String normalizedCompany = normalize(client.companyName);
-
-           
-            for (WebElement logo : driver.findElements(By.tagName("img"))) {
-                try {
-                    String alt = logo.getAttribute("alt");
-                    if (alt != null && !alt.trim().isEmpty()) {
-                        if (normalize(alt).contains(normalizedCompany)) {
-                            found = true;
-                            test.pass(" Company logo found (alt=" + alt + ")");
-                            break;
-                        }
-                    }
-                } catch (StaleElementReferenceException ignored) {}
-            }
-
-           
-            if (!found && fullText.contains(normalizedCompany)) {
-                found = true;
-                test.pass(" Company name found in text.");
-            }
-
-           
-            if (!found && fuzzyMatch(fullText, normalizedCompany)) {
-                found = true;
-                test.pass(" Company name fuzzy matched.");
-            }
-
-            if (!found) {
-                test.fail(" Company name/logo NOT found.",
-                        MediaEntityBuilder.createScreenCaptureFromPath(captureScreenshot(url)).build());
-            }
-
-        } catch (Exception e) {
-            test.warning(" Error checking company name/logo: " + e.getMessage());
-        }
-
-        return found;
-    }
-
-   
-
-    private boolean checkPhoneNumbers(ExcelReader.ClientData client, String fullText,
-                                      ExtentTest test, String url) throws IOException {
-        if (client.phone.isEmpty()) return true;
-
-        boolean foundAny = false;
-        String digitsPage = fullText.replaceAll("[^0-9]", "");
-
-        for (String ph : client.phone.split(";")) {
-            String normalized = ph.replaceAll("[^0-9]", "");
-
-            if (digitsPage.contains(normalized)) {
-                foundAny = true;
-                test.pass(" Phone found: " + ph);
-                continue;
-            }
-
-          
-            for (WebElement el : driver.findElements(By.xpath("//*"))) {
-                try {
-                    if (el.isDisplayed()) {
-                        String visible = normalize(el.getText()).replaceAll("[^0-9]", "");
-                        if (visible.contains(normalized)) {
-                            foundAny = true;
-                            test.pass(" Phone visible on page: " + ph);
-                            break;
-                        }
-                    }
-                } catch (Exception ignored) {}
-            }
-
-            if (!foundAny) {
-                test.fail(" Phone NOT found: " + ph,
-                        MediaEntityBuilder.createScreenCaptureFromPath(captureScreenshot(url)).build());
-            }
-        }
-
-        return foundAny;
-    }
-
-    
-
-    private boolean checkAddresses(ExcelReader.ClientData client, String fullText,
-                                   ExtentTest test, String url) throws IOException {
-
-        if (client.address.isEmpty()) return true;
-
-        boolean foundAny = false;
-        String normalizedPage = normalize(fullText);
-
-        for (String addr : client.address.split(";")) {
-            String normAddr = normalize(addr);
-
-            boolean exact = normalizedPage.contains(normAddr);
-            boolean fuzzy = fuzzyMatch(normalizedPage, normAddr);
-            boolean partial = allWordsPresent(normalizedPage, normAddr);
-
-            if (exact || fuzzy || partial) {
-                foundAny = true;
-                test.pass(" Address found: " + addr);
-            } else {
-                test.warning(" Address not found: " + addr);
-            }
-        }
-
-        if (!foundAny) {
-            test.fail(" Address missing",
-                    MediaEntityBuilder.createScreenCaptureFromPath(captureScreenshot(url)).build());
-        }
-
-        return foundAny;
-    }
-
-    private boolean allWordsPresent(String big, String small) {
-        String[] words = small.split(" ");
-        int found = 0;
-
-        for (String w : words) {
-            if (w.length() > 2 && big.contains(w)) found++;
-        }
-
-        return ((double) found / words.length) >= 0.60;
-    }
-
- 
-
-    private boolean checkHours(ExcelReader.ClientData client, String fullText,
-                               ExtentTest test, String url) throws IOException {
-
-        if (client.hours.isEmpty()) return true;
-
-        boolean found = false;
-
-        String expected = normalize(client.hours).replaceAll("\\s+", "");
-        String actual = normalize(fullText).replaceAll("\\s+", "");
-
-        if (actual.contains(expected)) found = true;
-        else if (actual.replaceAll("(am|pm)", "")
-                .contains(expected.replaceAll("(am|pm)", "")))
-            found = true;
-        else if (fuzzyMatch(actual, expected)) found = true;
-
-        if (found) {
-            test.pass(" Hours found: " + client.hours);
-        } else {
-            test.fail(" Hours not found: " + client.hours,
-                    MediaEntityBuilder.createScreenCaptureFromPath(captureScreenshot(url)).build());
-        }
-
-        return found;
-    }
-
- 
-
-    private void scrollToBottom() throws InterruptedException {
-        JavascriptExecutor js = (JavascriptExecutor) driver;
-        long lastHeight = (long) js.executeScript("return document.body.scrollHeight");
-        while (true) {
-            js.executeScript("window.scrollTo(0, document.body.scrollHeight);");
-            Thread.sleep(800);
-            long newHeight = (long) js.executeScript("return document.body.scrollHeight");
-            if (newHeight == lastHeight) break;
-            lastHeight = newHeight;
-        }
-    }
-
-    private Set<String> collectInternalLinks(String baseUrl) {
-        Set<String> links = new LinkedHashSet<>();
-        try {
-            List<WebElement> aTags = driver.findElements(By.tagName("a"));
-            String domain = getDomain(baseUrl);
-
-            for (WebElement a : aTags) {
-                String href = a.getAttribute("href");
-                if (href != null && href.startsWith("http") && href.contains(domain) && !href.contains("mailto")) {
-                    links.add(href.split("#")[0]);
-                }
-            }
-        } catch (Exception ignored) {}
-        return links;
-    }
-
-    private String getDomain(String url) {
-        try {
-            return java.net.URI.create(url).getHost();
-        } catch (Exception e) {
-            return url;
-        }
-    }
-
-    private String captureScreenshot(String url) {
-        try {
-            File src = ((TakesScreenshot) driver).getScreenshotAs(OutputType.FILE);
-            String filename =
-                    System.getProperty("user.dir") +
-                    "/screenshots/" +
-                    url.replaceAll("[^a-zA-Z0-9]", "_") +
-                    "_" + getDateTime() + ".png";
-
-            FileUtils.copyFile(src, new File(filename));
-            return filename;
-
-        } catch (IOException e) {
-            return "";
-        }
-    }
-
-  
-    private String getDateTime() {
-        return new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
-    }
-}
+package tests;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.io.FileUtils;
+import org.openqa.selenium.*;
+import org.testng.annotations.Test;
+import com.aventstack.extentreports.*;
+import utils.CrawlBudget;
+import utils.FuzzyMatcher;
+import utils.HybridPageLoader;
+import utils.PagePriority;
+import utils.PageReadiness;
+import utils.ResultStore;
+import utils.SectionFingerprints;
+
+
+
+public class SitemapHeaderFooterValidator extends BaseTest {
+
+    private static final int MAX_PAGES = 1;
+    private static final double FUZZY_THRESHOLD = 0.80;
+
+   
+    // Page being validated (static or rendered); the checks read logos from it
+    private HybridPageLoader.LoadedPage currentPage;
+
+    public static final AtomicInteger totalPages = new AtomicInteger(), passCount = new AtomicInteger(),
+            failCount = new AtomicInteger(), warningCount = new AtomicInteger();
+
+    @Test
+    public void verifySitemapLinksHeaderFooter() {
+        String csvPath = System.getProperty("user.dir") + "/src/test/resources/client_brief04.csv";
+        List<ExcelReader.ClientData> clients = ExcelReader.getClientData(csvPath);
+
+        // -Dincremental=true skips pages that passed last run and have not changed
+        ResultStore results = ResultStore.open("sitemap-header-footer");
+
+        for (ExcelReader.ClientData client : clients) {
+            ExtentTest siteTest = extent.createTest("Website: " + client.website);
+
+            int sitePages = 0, sitePass = 0, siteFail = 0, siteWarn = 0, siteUnchanged = 0;
+            SectionFingerprints variants = new SectionFingerprints();
+            HybridPageLoader loader = new HybridPageLoader(this::getDriver)
+                    .forceBrowser(client.renderJs)
+                    .scrollWhenRendered(true);
+
+            // A page skipped as unchanged must also have been checked against today's client row
+            String inputs = ResultStore.inputsHash(client.companyName, client.phone, client.address,
+                    client.hours, FUZZY_THRESHOLD);
+
+            try {
+                setupDriver();
+
+               
+                String sitemapUrl = client.website + (client.website.endsWith("/") ? "" : "/") + "sitemap/";
+                getDriver().get(sitemapUrl);
+                PageReadiness.waitForPage(getDriver());
+                scrollToBottom();
+
+               
+                Set<String> pageLinks = collectInternalLinks(client.website);
+
+                siteTest.info("Total links found in sitemap: " + pageLinks.size());
+
+                if (pageLinks.isEmpty()) {
+                    siteTest.warning("No links found in sitemap, fallback to homepage.");
+                    warningCount.incrementAndGet();
+                    siteWarn++;
+                    pageLinks.add(client.website);
+                }
+
+                // Last run's failures and shallow pages first; MAX_PAGES is the default page budget
+                CrawlBudget budget = CrawlBudget.forSite(client.website, MAX_PAGES).start();
+                List<String> ordered = new PagePriority().withHistory(results).order(pageLinks);
+
+                for (String pageUrl : ordered) {
+
+                    if (!budget.tryStartPage()) {
+                        siteTest.info("⏱ Stopped after " + sitePages + " of " + ordered.size() + " pages: " + budget.exhaustedReason());
+                        break;
+                    }
+                    totalPages.incrementAndGet();
+                    sitePages++;
+
+                    ExtentTest pageNode = siteTest.createNode(" Page: " + pageUrl);
+
+                    try {
+                        // Static HTML first; Chrome only when the page needs JavaScript
+                        currentPage = loader.load(pageUrl, results.previous(pageUrl, inputs));
+                        budget.addBytes(currentPage.bytes);
+
+                        if (currentPage.notModified || results.unchangedContent(pageUrl, currentPage.contentHash, inputs)) {
+                            siteUnchanged++;
+                            pageNode.skip("⏭ Unchanged since last successful validation ("
+                                    + (currentPage.notModified ? "HTTP 304" : "same content") + ")");
+                            continue;
+                        }
+
+                        if (currentPage.error != null) throw new IllegalStateException("page is broken: " + currentPage.error);
+
+                        if (currentPage.rendered) pageNode.info("🌐 Rendered in Chrome: " + currentPage.reason);
+                        else pageNode.info("⚡ Static HTML (HTTP " + currentPage.status + ")");
+
+                        String header = normalize(currentPage.header);
+                        String footer = normalize(currentPage.footer);
+                        String fullText = normalize(header + " " + footer + " " + currentPage.html);
+
+                        // Same header/footer as an earlier page: reuse what the sections alone already proved
+                        SectionFingerprints.Variant variant = variants.register(pageUrl, header, footer);
+
+                        boolean namePass = variant.reuse(pageNode, pageUrl, "Company name",
+                                s -> companyNameIn(s, client.companyName))
+                                || checkCompanyNameAndLogo(client, fullText, pageNode, pageUrl);
+                        boolean phonePass = variant.reuse(pageNode, pageUrl, "Phone",
+                                s -> allIn(client.phone, ph -> s.replaceAll("[^0-9]", "").contains(ph.replaceAll("[^0-9]", ""))))
+                                || checkPhoneNumbers(client, fullText, pageNode, pageUrl);
+                        boolean addressPass = variant.reuse(pageNode, pageUrl, "Address",
+                                s -> allIn(client.address, addr -> addressIn(s, normalize(addr))))
+                                || checkAddresses(client, fullText, pageNode, pageUrl);
+                        boolean hoursPass = variant.reuse(pageNode, pageUrl, "Hours",
+                                s -> !client.hours.isEmpty() && hoursIn(s, client.hours))
+                                || checkHours(client, fullText, pageNode, pageUrl);
+
+                        boolean shouldFail = false;
+
+                        if (!client.companyName.isEmpty() && !namePass) shouldFail = true;
+                        if (!client.phone.isEmpty() && !phonePass) shouldFail = true;
+                        if (!client.address.isEmpty() && !addressPass) shouldFail = true;
+                        if (!client.hours.isEmpty() && !hoursPass) shouldFail = true;
+
+                        currentPage.rememberIn(results.record(pageUrl, !shouldFail, inputs));
+
+                        if (!shouldFail) {
+                            passCount.incrementAndGet();
+                            sitePass++;
+                            pageNode.pass(" Page validation passed.");
+                        } else {
+                            failCount.incrementAndGet();
+                            siteFail++;
+                            pageNode.fail(" Page validation failed.");
+                        }
+
+                    } catch (Exception ex) {
+                        failCount.incrementAndGet();
+                        siteFail++;
+                        results.record(pageUrl, false, inputs);
+                        pageNode.fail("Error handling page: " + ex.getMessage());
+                    }
+                }
+
+                results.save();
+                variants.report(siteTest);
+
+                siteTest.info(
+                        "Summary :\n" +
+                        "Pages Scanned: " + sitePages +
+                        " (static: " + loader.staticPages() + ", rendered: " + loader.renderedPages() + ")" +
+                        " | Passed: " + sitePass +
+                        " | Failed: " + siteFail +
+                        " | Warnings: " + siteWarn +
+                        " | Unchanged: " + siteUnchanged
+                );
+
+                releaseDriver();
+
+            } catch (Exception e) {
+                siteTest.fail("Error reading sitemap: " + e.getMessage());
+                releaseDriver();
+            }
+        }
+
+    }
+   
+
+    private String normalize(String text) {
+        if (text == null) return "";
+        String t = text.replaceAll("(?i)<br\\s*/?>", " ");
+        t = t.replaceAll("<[^>]+>", " ");
+        t = t.replaceAll("[^a-zA-Z0-9 ]", " ");
+        t = t.toLowerCase();
+        t = t.replaceAll("\\s+", " ").trim();
+        return t;
+    }
+
+    // Every ;-separated value is present (false for an empty list)
+    private boolean allIn(String csv, java.util.function.Predicate<String> present) {
+        if (csv.isEmpty()) return false;
+        for (String v : csv.split(";")) {
+            if (!present.test(v)) return false;
+        }
+        return true;
+    }
+
+  
+
+    // Is b (approximately) somewhere inside a?  See utils.FuzzyMatcher.
+    private boolean fuzzyMatch(String a, String b) {
+        return FuzzyMatcher.matches(normalize(a), normalize(b), FUZZY_THRESHOLD);
+    }
+
+
+ 
+
+    private boolean companyNameIn(String text, String companyName) {
+        if (companyName.isEmpty()) return false;
+        String normalizedCompany = normalize(companyName);
+        return text.contains(normalizedCompany) || fuzzyMatch(text, normalizedCompany);
+    }
+
+    private boolean checkCompanyNameAndLogo(ExcelReader.ClientData client, String fullText,
+                                            ExtentTest test, String url) {
+        boolean found = false;
+
+        try {
+            if (client.companyName.isEmpty()) return true;
+
+            String normalizedCompany = normalize(client.companyName);
+
+           
+            for (String alt : currentPage.imageAlts()) {
+                if (normalize(alt).contains(normalizedCompany)) {
+                    found = true;
+                    test.pass(" Company logo found (alt=" + alt + ")");
+                    break;
+                }
+            }
+
+           
+            if (!found && fullText.contains(normalizedCompany)) {
+                found = true;
+                test.pass(" Company name found in text.");
+            }
+
+           
+            if (!found && fuzzyMatch(fullText, normalizedCompany)) {
+                found = true;
+                test.pass(" Company name fuzzy matched.");
+            }
+
+            if (!found) {
+                test.fail(" Company name/logo NOT found.",
+                        MediaEntityBuilder.createScreenCaptureFromPath(captureScreenshot(url)).build());
+            }
+
+        } catch (Exception e) {
+            test.warning(" Error checking company name/logo: " + e.getMessage());
+        }
+
+        return found;
+    }
+
+   
+
+    private boolean checkPhoneNumbers(ExcelReader.ClientData client, String fullText,
+                                      ExtentTest test, String url) throws IOException {
+        if (client.phone.isEmpty()) return true;
+
+        boolean foundAny = false;
+        String digitsPage = fullText.replaceAll("[^0-9]", "");
+
+        for (String ph : client.phone.split(";")) {
+            String normalized = ph.replaceAll("[^0-9]", "");
+
+            if (digitsPage.contains(normalized)) {
+                foundAny = true;
+                test.pass(" Phone found: " + ph);
+                continue;
+            }
+
+            // Visible text can differ from the source only on a rendered page
+            if (!currentPage.rendered) {
+                if (!foundAny) {
+                    test.fail(" Phone NOT found: " + ph,
+                            MediaEntityBuilder.createScreenCaptureFromPath(captureScreenshot(url)).build());
+                }
+                continue;
+            }
+
+            for (WebElement el : getDriver().findElements(By.xpath("//*"))) {
+                try {
+                    if (el.isDisplayed()) {
+                        String visible = normalize(el.getText()).replaceAll("[^0-9]", "");
+                        if (visible.contains(normalized)) {
+                            foundAny = true;
+                            test.pass(" Phone visible on page: " + ph);
+                            break;
+                        }
+                    }
+                } catch (Exception ignored) {}
+            }
+
+            if (!foundAny) {
+                test.fail(" Phone NOT found: " + ph,
+                        MediaEntityBuilder.createScreenCaptureFromPath(captureScreenshot(url)).build());
+            }
+        }
+
+        return foundAny;
+    }
+
+    
+
+    private boolean checkAddresses(ExcelReader.ClientData client, String fullText,
+                                   ExtentTest test, String url) throws IOException {
+
+        if (client.address.isEmpty()) return true;
+
+        boolean foundAny = false;
+        String normalizedPage = normalize(fullText);
+
+        for (String addr : client.address.split(";")) {
+            String normAddr = normalize(addr);
+
+            if (addressIn(normalizedPage, normAddr)) {
+                foundAny = true;
+                test.pass(" Address found: " + addr);
+            } else {
+                test.warning(" Address not found: " + addr);
+            }
+        }
+
+        if (!foundAny) {
+            test.fail(" Address missing",
+                    MediaEntityBuilder.createScreenCaptureFromPath(captureScreenshot(url)).build());
+        }
+
+        return foundAny;
+    }
+
+    // exact, fuzzy or most of the words
+    private boolean addressIn(String page, String normAddr) {
+        return page.contains(normAddr) || fuzzyMatch(page, normAddr) || allWordsPresent(page, normAddr);
+    }
+
+    private boolean allWordsPresent(String big, String small) {
+        String[] words = small.split(" ");
+        int found = 0;
+
+        for (String w : words) {
+            if (w.length() > 2 && big.contains(w)) found++;
+        }
+
+        return ((double) found / words.length) >= 0.60;
+    }
+
+ 
+
+    private boolean checkHours(ExcelReader.ClientData client, String fullText,
+                               ExtentTest test, String url) throws IOException {
+
+        if (client.hours.isEmpty()) return true;
+
+        boolean found = hoursIn(fullText, client.hours);
+
+        if (found) {
+            test.pass(" Hours found: " + client.hours);
+        } else {
+            test.fail(" Hours not found: " + client.hours,
+                    MediaEntityBuilder.createScreenCaptureFromPath(captureScreenshot(url)).build());
+        }
+
+        return found;
+    }
+
+ 
+
+    private boolean hoursIn(String text, String hours) {
+        String expected = normalize(hours).replaceAll("\\s+", "");
+        String actual = normalize(text).replaceAll("\\s+", "");
+
+        return actual.contains(expected)
+                || actual.replaceAll("(am|pm)", "").contains(expected.replaceAll("(am|pm)", ""))
+                || fuzzyMatch(actual, expected);
+    }
+
+    private void scrollToBottom() throws InterruptedException {
+        JavascriptExecutor js = (JavascriptExecutor) getDriver();
+        long lastHeight = (long) js.executeScript("return document.body.scrollHeight");
+        while (true) {
+            js.executeScript("window.scrollTo(0, document.body.scrollHeight);");
+            PageReadiness.settle(getDriver(), 3000);
+            long newHeight = (long) js.executeScript("return document.body.scrollHeight");
+            if (newHeight == lastHeight) break;
+            lastHeight = newHeight;
+        }
+    }
+
+    private Set<String> collectInternalLinks(String baseUrl) {
+        Set<String> links = new LinkedHashSet<>();
+        try {
+            List<WebElement> aTags = getDriver().findElements(By.tagName("a"));
+            String domain = getDomain(baseUrl);
+
+            for (WebElement a : aTags) {
+                String href = a.getAttribute("href");
+                if (href != null && href.startsWith("http") && href.contains(domain) && !href.contains("mailto")) {
+                    links.add(href.split("#")[0]);
+                }
+            }
+        } catch (Exception ignored) {}
+        return links;
+    }
+
+    private String getDomain(String url) {
+        try {
+            return java.net.URI.create(url).getHost();
+        } catch (Exception e) {
+            return url;
+        }
+    }
+
+    private String captureScreenshot(String url) {
+        try {
+            // Static pages were never opened in the browser
+            if (!url.equals(getDriver().getCurrentUrl())) {
+                getDriver().get(url);
+                PageReadiness.waitForPage(getDriver());
+            }
+
+            File src = ((TakesScreenshot) getDriver()).getScreenshotAs(OutputType.FILE);
+            String filename =
+                    System.getProperty("user.dir") +
+                    "/screenshots/" +
+                    url.replaceAll("[^a-zA-Z0-9]", "_") +
+                    "_" + getDateTime() + ".png";
+
+            FileUtils.copyFile(src, new File(filename));
+            return filename;
+
+        } catch (IOException e) {
+            return "";
+        }
+    }
+
+  
+    private String getDateTime() {
+        return new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
+    }
+}
@@ -0,0 +1,285 @@
+package utils;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ---------------------------------------------------------
+ * Non-blocking batch status checker.
+ *
+ * URLs are queued per host and dispatched through the shared
+ * HttpClient with:
+ * - a global limit on requests in flight
+ * - a per-host limit, so one origin is never hammered
+ *
+ * Hosts are served round-robin, so a site with thousands of
+ * internal links does not starve the third-party links queued
+ * behind it. No thread blocks while waiting for a slot.
+ *
+ * Every dispatch also needs a token from HostPoliteness (per-
+ * host rate, shared across the run). A host that is out of
+ * tokens or paused is skipped and the queue is pumped again
+ * when its next token is due. 429 / 503+Retry-After answers
+ * are re-queued up to -Dlinks.throttleRetries times (default
+ * 2) after the pause the server asked for.
+ *
+ * HostHealth adds a circuit breaker: while a host's circuit is
+ * open its queued URLs fail fast instead of each waiting for a
+ * timeout, and request timeouts follow the host's observed
+ * latency (capped at the configured timeout).
+ *
+ * resolve() hands back a LinkResult: status or failure
+ * category, redirect chain and time to headers. URLs already
+ * answered in this run come from ResponseCache without a
+ * request; new answers are added to it.
+ * ---------------------------------------------------------
+ */
+public class BatchLinkChecker {
+
+    private static class Job {
+        final String url;
+        final CompletableFuture<LinkResult> result = new CompletableFuture<>();
+        int attempts = 0;
+
+        Job(String url) {
+            this.url = url;
+        }
+    }
+
+    // Wakes a checker up when a rate-limited host has a token again
+    private static final ScheduledExecutorService WAKEUP = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "link-checker-wakeup");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final HostPoliteness politeness = HostPoliteness.shared();
+    private final HostHealth health = HostHealth.shared();
+    private final ResponseCache cache = ResponseCache.shared();
+    private final List<Job> rejected = new ArrayList<>();
+    private final int throttleRetries = Integer.getInteger("links.throttleRetries", 2);
+    private long wakeupAt = Long.MAX_VALUE;
+
+    private final String method;
+    private final int timeoutMs;
+    private final int maxConcurrent;
+    private final int maxPerHost;
+
+    private String authHost;
+    private String authHeader;
+
+    private final LinkedHashMap<String, Deque<Job>> queues = new LinkedHashMap<>();
+    private final Map<String, Integer> hostInFlight = new HashMap<>();
+    private int inFlight = 0;
+
+    public BatchLinkChecker(String method, int timeoutMs, int maxConcurrent, int maxPerHost) {
+        this.method = method;
+        this.timeoutMs = timeoutMs;
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.maxPerHost = Math.max(1, maxPerHost);
+    }
+
+    /** Send HTTP Basic credentials to this host only (staging sites behind auth). */
+    public BatchLinkChecker withBasicAuth(String host, String username, String password) {
+        this.authHost = host == null ? null : host.toLowerCase();
+        this.authHeader = "Basic " + Base64.getEncoder().encodeToString(
+                (username + ":" + password).getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        return this;
+    }
+
+    /** Queue a URL; the future completes with its status code (negative failure code on error). */
+    public CompletableFuture<Integer> submit(String url) {
+        return resolve(url).thenApply(d -> d.status);
+    }
+
+    /** Queue a URL; the future completes with its typed result (redirects followed). */
+    public CompletableFuture<LinkResult> resolve(String url) {
+        ResponseCache.Entry cached = authorized(url) ? null : cache.lookup(url, method);
+        if (cached != null) return CompletableFuture.completedFuture(cached.toResult(url));
+
+        Job job = new Job(url);
+
+        synchronized (this) {
+            queues.computeIfAbsent(hostOf(url), h -> new ArrayDeque<>()).addLast(job);
+        }
+        pump();
+
+        return job.result;
+    }
+
+    /** Queue every URL; the returned map keeps the input order. */
+    public Map<String, CompletableFuture<Integer>> submitAll(Collection<String> urls) {
+        Map<String, CompletableFuture<Integer>> results = new LinkedHashMap<>();
+        for (String url : urls) {
+            if (!results.containsKey(url)) results.put(url, submit(url));
+        }
+        return results;
+    }
+
+    // ---------------------------------------------------------
+    // Start as many queued jobs as the limits allow
+    // ---------------------------------------------------------
+    private void pump() {
+        while (true) {
+            List<Job> ready = takeReady();
+            for (Job job : drainRejected()) job.result.complete(circuitOpen(job));
+
+            if (ready.isEmpty()) return;
+            for (Job job : ready) dispatch(job);
+        }
+    }
+
+    private synchronized List<Job> drainRejected() {
+        List<Job> out = new ArrayList<>(rejected);
+        rejected.clear();
+        return out;
+    }
+
+    private LinkResult circuitOpen(Job job) {
+        String host = hostOf(job.url);
+        return LinkResult.failed(job.url, LinkResult.Failure.CIRCUIT_OPEN,
+                "Skipped: circuit open for " + host + " (" + health.consecutiveFailures(host) + " failures in a row)");
+    }
+
+    private synchronized List<Job> takeReady() {
+        List<Job> ready = new ArrayList<>();
+        boolean progress = true;
+        long nextToken = Long.MAX_VALUE;
+
+        while (inFlight < maxConcurrent && progress) {
+            progress = false;
+
+            Iterator<Map.Entry<String, Deque<Job>>> it = queues.entrySet().iterator();
+            while (it.hasNext() && inFlight < maxConcurrent) {
+                Map.Entry<String, Deque<Job>> entry = it.next();
+                String host = entry.getKey();
+
+                // Dead host: fail everything queued for it right away
+                if (health.isOpen(host)) {
+                    rejected.addAll(entry.getValue());
+                    it.remove();
+                    continue;
+                }
+
+                if (hostInFlight.getOrDefault(host, 0) >= politeness.maxInFlight(host, maxPerHost)) continue;
+
+                if (!politeness.tryAcquire(host)) {
+                    nextToken = Math.min(nextToken, politeness.delayMs(host));
+                    continue;
+                }
+
+                Job job = entry.getValue().pollFirst();
+                if (entry.getValue().isEmpty()) it.remove();
+
+                if (!health.allowRequest(host)) {   // half-open: someone else has the probe
+                    rejected.add(job);
+                    progress = true;
+                    continue;
+                }
+
+                hostInFlight.merge(host, 1, Integer::sum);
+                inFlight++;
+                ready.add(job);
+                progress = true;
+            }
+        }
+
+        if (nextToken != Long.MAX_VALUE) scheduleWakeup(Math.max(1, nextToken));
+        return ready;
+    }
+
+    // Only the earliest pending wake-up is kept; pump() re-plans the rest
+    private synchronized void scheduleWakeup(long delayMs) {
+        long at = System.currentTimeMillis() + delayMs;
+        if (at >= wakeupAt) return;
+
+        wakeupAt = at;
+        WAKEUP.schedule(() -> {
+            synchronized (this) {
+                if (wakeupAt <= System.currentTimeMillis()) wakeupAt = Long.MAX_VALUE;
+            }
+            pump();
+        }, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    // Throttled by the server: back to the front of its host queue
+    private synchronized void requeue(Job job) {
+        queues.computeIfAbsent(hostOf(job.url), h -> new ArrayDeque<>()).addFirst(job);
+    }
+
+    private synchronized void release(Job job) {
+        hostInFlight.merge(hostOf(job.url), -1, Integer::sum);
+        inFlight--;
+    }
+
+    private void dispatch(Job job) {
+        CompletableFuture<HttpResponse<Void>> call;
+        String host = hostOf(job.url);
+        long started = System.currentTimeMillis();
+        long[] headersAt = {0};
+        try {
+            HttpRequest.Builder request = SharedHttpClient.request(job.url, method, health.timeoutFor(host, timeoutMs));
+            if (authorized(job.url)) {
+                request.header("Authorization", authHeader);
+            }
+            call = SharedHttpClient.get().sendAsync(request.build(), info -> {
+                headersAt[0] = System.currentTimeMillis();
+                return HttpResponse.BodySubscribers.discarding();
+            });
+        } catch (Exception e) {
+            // Malformed URL: fail now (nothing was sent); the caller's pump() loop picks the next job
+            release(job);
+            politeness.refund(host);
+            health.releaseProbe(host);
+            job.result.complete(LinkResult.failed(job.url, e));
+            return;
+        }
+
+        call.whenComplete((response, error) -> {
+            release(job);
+            job.attempts++;
+
+            LinkResult r;
+            if (error == null) {
+                r = LinkResult.of(job.url, response);
+                health.onResponse(host, headersAt[0] - started);
+
+                boolean throttled = politeness.onResponse(host, r.status,
+                        response.headers().firstValue("Retry-After").orElse(null));
+                if (throttled && job.attempts <= throttleRetries) {
+                    requeue(job);
+                    pump();
+                    return;
+                }
+                r.headersMs = headersAt[0] - started;
+            } else {
+                r = LinkResult.failed(job.url, error);
+                if (r.failure.countsAgainstHost()) politeness.onError(host);
+                health.onFailure(host, r.failure);
+            }
+            r.totalMs = System.currentTimeMillis() - started;
+            if (!authorized(job.url)) cache.storeStatus(method, r);
+            job.result.complete(r);
+            pump();
+        });
+    }
+
+    private boolean authorized(String url) {
+        return authHeader != null && hostOf(url).equals(authHost);
+    }
+
+    private static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host == null ? "" : host.toLowerCase();
+        } catch (Exception e) {
+            return "";
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.Color;
+
+import java.util.*;
+
+/**
+ * ---------------------------------------------------------
+ * Reads every CTA on the current page in ONE executeScript.
+ *
+ * Per element the script returns href, visible text, aria /
+ * alt / title, the computed styles the validators report,
+ * icon presence and the section it sits in. Before this each
+ * CTA cost ~10 WebDriver round-trips (getAttribute, five
+ * getCssValue calls, findElements for svg/img, getText).
+ *
+ * When a CTA really has to be clicked, locate() finds the
+ * live element again by its index in the same selector.
+ * ---------------------------------------------------------
+ */
+public class CTASnapshot {
+
+    /** Anchors, buttons and anything with an onclick / button role. */
+    public static final String INTERACTIVE = "a, button, [onclick], [role='button']";
+
+    private static final String CAPTURE_SCRIPT =
+            "var header = document.querySelector('header'), footer = document.querySelector('footer');" +
+            "var nodes = document.querySelectorAll(arguments[0]), out = [];" +
+            "for (var i = 0; i < nodes.length; i++) {" +
+            "  var el = nodes[i], cs = window.getComputedStyle(el), img = el.querySelector('img');" +
+            "  var inner = (el.innerText || el.textContent || '').trim();" +
+            "  var visible = el.getClientRects().length > 0 && cs.visibility !== 'hidden';" +
+            "  var href = el.getAttribute('href');" +
+            "  out.push({" +
+            "    tag: el.tagName.toLowerCase()," +
+            "    href: href === null ? null : (typeof el.href === 'string' ? el.href : href)," +
+            "    text: visible ? inner : ''," +
+            "    innerText: inner," +
+            "    aria: el.getAttribute('aria-label'), alt: el.getAttribute('alt'), title: el.getAttribute('title')," +
+            "    id: el.getAttribute('id'), cls: el.getAttribute('class')," +
+            "    placeholder: el.getAttribute('placeholder'), onclick: el.getAttribute('onclick')," +
+            "    color: cs.color, fontSize: cs.fontSize, fontWeight: cs.fontWeight," +
+            "    padding: cs.padding, radius: cs.borderRadius," +
+            "    svg: !!el.querySelector('svg'), img: !!img, imgAlt: img ? img.getAttribute('alt') : null," +
+            "    section: header && header.contains(el) ? 'header' : (footer && footer.contains(el) ? 'footer' : 'body')" +
+            "  });" +
+            "}" +
+            "return out;";
+
+    private static final String LOCATE_SCRIPT =
+            "return document.querySelectorAll(arguments[0])[arguments[1]] || null;";
+
+    /** One CTA as it was when the snapshot was taken. */
+    public static class CTA {
+        public int index;
+        public String selector;
+        public String section;          // header / body / footer
+
+        public String tag;
+        public String href;             // absolute, like getAttribute("href"); null if absent
+        public String text = "";        // visible text (what getText() returns)
+        public String innerText = "";   // innerText / textContent, also for hidden elements
+        public String ariaLabel, alt, title, id, cssClass, placeholder, onclick;
+
+        public String color, fontSize, fontWeight, padding, borderRadius;
+
+        public boolean hasSvg, hasImg;
+        public String imgAlt;
+
+        /** Visible text, falling back to innerText for hidden elements. */
+        public String label() {
+            return !text.isEmpty() ? text : innerText;
+        }
+
+        public boolean hasIcon() {
+            return hasSvg || hasImg ||
+                   (cssClass != null && (cssClass.contains("fa-") || cssClass.contains("icon")));
+        }
+    }
+
+    public static List<CTA> capture(WebDriver driver) {
+        return capture(driver, INTERACTIVE);
+    }
+
+    /** All elements matching the CSS selector, in document order. */
+    public static List<CTA> capture(WebDriver driver, String selector) {
+        List<CTA> ctas = new ArrayList<>();
+
+        Object raw = ((JavascriptExecutor) driver).executeScript(CAPTURE_SCRIPT, selector);
+        if (!(raw instanceof List)) return ctas;
+
+        int index = 0;
+        for (Object item : (List<?>) raw) {
+            Map<?, ?> m = (Map<?, ?>) item;
+
+            CTA c = new CTA();
+            c.index = index++;
+            c.selector = selector;
+            c.section = str(m.get("section"));
+
+            c.tag = str(m.get("tag"));
+            c.href = (String) m.get("href");
+            c.text = str(m.get("text"));
+            c.innerText = str(m.get("innerText"));
+            c.ariaLabel = (String) m.get("aria");
+            c.alt = (String) m.get("alt");
+            c.title = (String) m.get("title");
+            c.id = (String) m.get("id");
+            c.cssClass = (String) m.get("cls");
+            c.placeholder = (String) m.get("placeholder");
+            c.onclick = (String) m.get("onclick");
+
+            c.color = rgba(str(m.get("color")));
+            c.fontSize = str(m.get("fontSize"));
+            c.fontWeight = str(m.get("fontWeight"));
+            c.padding = str(m.get("padding"));
+            c.borderRadius = str(m.get("radius"));
+
+            c.hasSvg = Boolean.TRUE.equals(m.get("svg"));
+            c.hasImg = Boolean.TRUE.equals(m.get("img"));
+            c.imgAlt = (String) m.get("imgAlt");
+
+            ctas.add(c);
+        }
+        return ctas;
+    }
+
+    /** CTAs of one section ("header", "body" or "footer"). */
+    public static List<CTA> inSection(List<CTA> ctas, String section) {
+        List<CTA> out = new ArrayList<>();
+        for (CTA c : ctas) {
+            if (section.equals(c.section)) out.add(c);
+        }
+        return out;
+    }
+
+    /** The live element for a CTA (null if the DOM changed and it is gone). */
+    public static WebElement locate(WebDriver driver, CTA cta) {
+        return (WebElement) ((JavascriptExecutor) driver).executeScript(LOCATE_SCRIPT, cta.selector, cta.index);
+    }
+
+    private static String str(Object o) {
+        return o == null ? "" : o.toString();
+    }
+
+    // getCssValue() reports colours as rgba(); keep the report format unchanged
+    private static String rgba(String css) {
+        try {
+            return Color.fromString(css).asRgba();
+        } catch (Exception e) {
+            return css;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package utils;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * ---------------------------------------------------------
+ * Verifies CTA destinations over HTTP instead of driving the
+ * browser to every href and back.
+ *
+ * prefetch() starts all http(s) targets of a page at once on
+ * the pooled client (redirects followed, per-host limits from
+ * BatchLinkChecker); verify() then just picks up the result.
+ * Validators call prefetch() once per page with all their CTAs
+ * and ask checksOverHttp(href) which ones to verify() here:
+ * hrefs that are null or not http(s) are skipped, and in
+ * browser mode prefetch() does nothing.
+ *
+ * One verifier is meant to live for a whole site: results are
+ * cached by normalized href for -Dcta.cacheTtlSec (default
+ * 1800), so header/footer CTAs repeated on every page are only
+ * checked once. cachedFrom() tells the report which page the
+ * verdict was first taken on.
+ *
+ * -Dcta.verify=browser switches the validators back to the
+ * old navigate-and-back behaviour (verdicts are still cached
+ * through record()). onclick / javascript CTAs always go
+ * through the browser.
+ * ---------------------------------------------------------
+ */
+public class CTAVerifier {
+
+    /** True unless -Dcta.verify=browser. */
+    public static boolean httpMode() {
+        return !"browser".equalsIgnoreCase(System.getProperty("cta.verify", "http"));
+    }
+
+    /** Only plain web links can be checked without a browser. */
+    public static boolean isHttpTarget(String href) {
+        if (href == null) return false;
+        String low = href.trim().toLowerCase();
+        return low.startsWith("http://") || low.startsWith("https://");
+    }
+
+    private static class Entry {
+        final CompletableFuture<LinkResult> result;
+        final String page;
+        final long createdAt = System.currentTimeMillis();
+
+        Entry(CompletableFuture<LinkResult> result, String page) {
+            this.result = result;
+            this.page = page;
+        }
+    }
+
+    private final BatchLinkChecker checker = new BatchLinkChecker("GET",
+            SharedHttpClient.requestTimeoutMs(),
+            Integer.getInteger("links.maxConcurrent", 32),
+            Integer.getInteger("links.maxPerHost", 6));
+
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+    private final long ttlMs = Integer.getInteger("cta.cacheTtlSec", 1800) * 1000L;
+
+    private volatile String currentPage = "";
+
+    /** Send HTTP Basic credentials to the site's own host. */
+    public CTAVerifier withBasicAuth(String host, String username, String password) {
+        checker.withBasicAuth(host, username, password);
+        return this;
+    }
+
+    /** The page whose CTAs are being verified now (used for cache attribution). */
+    public CTAVerifier onPage(String pageUrl) {
+        this.currentPage = pageUrl == null ? "" : pageUrl;
+        return this;
+    }
+
+    /** Start checking every http(s) href that is not cached yet (duplicates are checked once). */
+    public CTAVerifier prefetch(Collection<String> hrefs) {
+        return prefetch(hrefs, href -> href);
+    }
+
+    /** prefetch() for a page's CTAs; the function picks the href (null skips the CTA). */
+    public <T> CTAVerifier prefetch(Collection<T> ctas, Function<? super T, String> href) {
+        if (!httpMode()) return this;
+        for (T cta : ctas) {
+            String target = href.apply(cta);
+            if (isHttpTarget(target)) entry(target);
+        }
+        return this;
+    }
+
+    /** Whether this href is verified over HTTP (verify()) rather than in the browser. */
+    public boolean checksOverHttp(String href) {
+        return httpMode() && isHttpTarget(href);
+    }
+
+    /** Final status / URL for an href; waits if its check is still running. */
+    public LinkResult verify(String href) {
+        return entry(href).result.join();
+    }
+
+    /** Page an href was first verified on, or null if it was verified for this page. */
+    public String cachedFrom(String href) {
+        Entry e = live(key(href));
+        return e != null && !e.page.equals(currentPage) ? e.page : null;
+    }
+
+    /** A finished, unexpired verdict for an href (any mode), or null. */
+    public LinkResult cached(String href) {
+        Entry e = live(key(href));
+        return e != null && e.result.isDone() ? e.result.join() : null;
+    }
+
+    /** Store a verdict taken in the browser (error == null means navigation worked). */
+    public void record(String href, String finalUrl, String error) {
+        LinkResult d = new LinkResult(href);
+        d.finalUrl = finalUrl != null ? finalUrl : href;
+        d.error = error;
+        d.failure = error == null ? LinkResult.Failure.NONE : LinkResult.Failure.OTHER;
+        d.status = error == null ? 200 : -1;   // no status in the browser; a completed navigation counts as OK
+
+        cache.put(key(href), new Entry(CompletableFuture.completedFuture(d), currentPage));
+    }
+
+    // ---------------------------------------------------------
+    // Cache
+    // ---------------------------------------------------------
+    private Entry entry(String href) {
+        return cache.compute(key(href), (k, e) ->
+                e != null && !expired(e) ? e : new Entry(checker.resolve(href.trim()), currentPage));
+    }
+
+    private Entry live(String key) {
+        Entry e = cache.get(key);
+        return e == null || expired(e) ? null : e;
+    }
+
+    private boolean expired(Entry e) {
+        return System.currentTimeMillis() - e.createdAt > ttlMs;
+    }
+
+    /** Cache key: the same page key the crawlers use (see UrlCanonicalizer). */
+    static String key(String href) {
+        return UrlCanonicalizer.key(href);
+    }
+}
@@ -0,0 +1,32 @@
+package utils;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+
+/**
+ * ---------------------------------------------------------
+ * ExtentReports that can be shared by parallel TestNG threads.
+ *
+ * ExtentTest.createNode() already locks its parent, and the
+ * model's log/children lists are synchronized, but creating
+ * top-level tests and flushing are not. Those are serialized
+ * here on the report instance.
+ * ---------------------------------------------------------
+ */
+public class ConcurrentExtentReports extends ExtentReports {
+
+    @Override
+    public synchronized ExtentTest createTest(String name) {
+        return super.createTest(name);
+    }
+
+    @Override
+    public synchronized ExtentTest createTest(String name, String description) {
+        return super.createTest(name, description);
+    }
+
+    @Override
+    public synchronized void flush() {
+        super.flush();
+    }
+}
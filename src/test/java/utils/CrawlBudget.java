@@ -0,0 +1,140 @@
+package utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ---------------------------------------------------------
+ * How much one site may cost in a run: pages, wall-clock
+ * time and downloaded bytes. Whatever runs out first ends the
+ * site's crawl / validation; what was left is reported (and
+ * stays resumable in a crawl checkpoint).
+ *
+ *   -Dbudget.pages=N        pages (default: the validator's own cap)
+ *   -Dbudget.minutes=M      wall-clock minutes from start()
+ *   -Dbudget.bytes=50MB     bytes downloaded (KB / MB / GB accepted)
+ *
+ * Any of them can be set for a single site by putting its host
+ * in the name: -Dbudget.www.example.com.pages=2000
+ *
+ * Combined with PagePriority the most important pages are
+ * spent first, so a time-boxed CI run still covers them.
+ * ---------------------------------------------------------
+ */
+public class CrawlBudget {
+
+    public static final int UNLIMITED = -1;
+
+    private final int maxPages;
+    private final long maxMillis;
+    private final long maxBytes;
+
+    private final AtomicInteger pages = new AtomicInteger();
+    private final AtomicLong bytes = new AtomicLong();
+    private volatile long startedAt = System.currentTimeMillis();
+    private volatile String exhausted;
+
+    public CrawlBudget(int maxPages, long maxMillis, long maxBytes) {
+        this.maxPages = maxPages;
+        this.maxMillis = maxMillis;
+        this.maxBytes = maxBytes;
+    }
+
+    /** No limits at all. */
+    public static CrawlBudget unlimited() {
+        return new CrawlBudget(UNLIMITED, UNLIMITED, UNLIMITED);
+    }
+
+    /** Budget for a site from -Dbudget.* (host-specific first); defaultPages if no page limit is set. */
+    public static CrawlBudget forSite(String siteUrl, int defaultPages) {
+        String host = HostPoliteness.hostOf(siteUrl);
+
+        String pages = property(host, "pages");
+        String minutes = property(host, "minutes");
+        String bytes = property(host, "bytes");
+
+        return new CrawlBudget(
+                pages == null ? defaultPages : Integer.parseInt(pages.trim()),
+                minutes == null ? UNLIMITED : (long) (Double.parseDouble(minutes.trim()) * 60_000),
+                bytes == null ? UNLIMITED : parseBytes(bytes));
+    }
+
+    /** Start the clock (construction already does; call again when the real work begins). */
+    public CrawlBudget start() {
+        startedAt = System.currentTimeMillis();
+        return this;
+    }
+
+    /** Claim one page. False once any limit is reached; the page must not be processed. */
+    public boolean tryStartPage() {
+        if (exhausted != null) return false;
+
+        if (maxMillis != UNLIMITED && System.currentTimeMillis() - startedAt >= maxMillis) {
+            return exhaust("time budget of " + maxMillis / 1000 + " s used up");
+        }
+        if (maxBytes != UNLIMITED && bytes.get() >= maxBytes) {
+            return exhaust("byte budget of " + maxBytes + " bytes used up");
+        }
+        int claimed = pages.incrementAndGet();
+        if (maxPages != UNLIMITED && claimed > maxPages) {
+            pages.decrementAndGet();
+            return exhaust("page budget of " + maxPages + " pages used up");
+        }
+        return true;
+    }
+
+    /** Count downloaded bytes against the budget. */
+    public void addBytes(long n) {
+        if (n > 0) bytes.addAndGet(n);
+    }
+
+    /** Page limit, or UNLIMITED. */
+    public int maxPages() {
+        return maxPages;
+    }
+
+    public int pagesUsed() {
+        return pages.get();
+    }
+
+    public long bytesUsed() {
+        return bytes.get();
+    }
+
+    /** Why the budget ran out, or null while it has not. */
+    public String exhaustedReason() {
+        return exhausted;
+    }
+
+    /** "pages 120/500, 3.2 MB, 41 s" for the report. */
+    public String describe() {
+        return "pages " + pages.get() + (maxPages == UNLIMITED ? "" : "/" + maxPages)
+                + ", " + String.format("%.1f", bytes.get() / 1048576.0) + " MB"
+                + (maxBytes == UNLIMITED ? "" : "/" + String.format("%.1f", maxBytes / 1048576.0))
+                + ", " + (System.currentTimeMillis() - startedAt) / 1000 + " s"
+                + (maxMillis == UNLIMITED ? "" : "/" + maxMillis / 1000);
+    }
+
+    private synchronized boolean exhaust(String reason) {
+        if (exhausted == null) {
+            exhausted = reason;
+            System.out.println("⏱ Budget reached: " + reason + " (" + describe() + ")");
+        }
+        return false;
+    }
+
+    private static String property(String host, String name) {
+        String value = host.isEmpty() ? null : System.getProperty("budget." + host + "." + name);
+        return value != null ? value : System.getProperty("budget." + name);
+    }
+
+    static long parseBytes(String value) {
+        String v = value.trim().toUpperCase();
+        long unit = 1;
+        if (v.endsWith("GB")) unit = 1L << 30;
+        else if (v.endsWith("MB")) unit = 1L << 20;
+        else if (v.endsWith("KB")) unit = 1L << 10;
+        if (unit > 1) v = v.substring(0, v.length() - 2).trim();
+        return (long) (Double.parseDouble(v) * unit);
+    }
+}
@@ -0,0 +1,223 @@
+package utils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * ---------------------------------------------------------
+ * Append-only journal of a crawl, so a crash or CI timeout
+ * does not throw away hours of work.
+ *
+ * Every line is one event:
+ *   Q <url>                         URL entered the frontier
+ *   D <url> <status> <skipped> <error> <title> <links>
+ *                                   page finished, with result
+ *   END                             crawl completed
+ * A page's Q lines are always written before its D line, so
+ * whatever made it to disk is consistent.
+ *
+ * The file is flushed every -Dcrawl.checkpointEvery finished
+ * pages (default 25) and at least every 5 seconds.
+ *
+ * With -Dcrawl.resume=true an unfinished journal is replayed:
+ * finished pages go back to the listener (so report nodes and
+ * counters are rebuilt) and every URL that was queued but not
+ * finished is crawled again. Without it the journal starts
+ * over. Files live in -Dcrawl.checkpointDir
+ * (default target/crawl-checkpoints).
+ * ---------------------------------------------------------
+ */
+public class CrawlCheckpoint implements Closeable {
+
+    private static final long FLUSH_INTERVAL_MS = 5000;
+
+    public static boolean resumeRequested() {
+        return Boolean.getBoolean("crawl.resume");
+    }
+
+    public static int checkpointEvery() {
+        return Integer.getInteger("crawl.checkpointEvery", 25);
+    }
+
+    public static Path checkpointDir() {
+        return Paths.get(System.getProperty("crawl.checkpointDir", "target/crawl-checkpoints"));
+    }
+
+    /** Journal for one named crawl of one site, resumed if -Dcrawl.resume=true. */
+    public static CrawlCheckpoint forCrawl(String name, String seed) throws IOException {
+        String site = seed.replaceFirst("^https?://", "").replaceAll("[^a-zA-Z0-9.-]", "_");
+        return new CrawlCheckpoint(checkpointDir().resolve(name + "_" + site + ".log"), resumeRequested());
+    }
+
+    private final Path file;
+    private final Writer out;
+
+    private final LinkedHashSet<String> seen = new LinkedHashSet<>();
+    private final Map<String, CrawlEngine.PageResult> finished = new LinkedHashMap<>();
+    private boolean resumed = false;
+
+    private int unflushed = 0;
+    private long lastFlush = System.currentTimeMillis();
+
+    public CrawlCheckpoint(Path file, boolean resume) throws IOException {
+        this.file = file;
+        Files.createDirectories(file.toAbsolutePath().getParent());
+
+        if (resume && Files.exists(file)) load();
+
+        // Continue the same journal when resuming; otherwise start a fresh one
+        this.out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                resumed ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    /** True if an unfinished crawl was loaded from disk. */
+    public boolean isResumed() {
+        return resumed;
+    }
+
+    /** Every URL that entered the frontier before the restart. */
+    public Set<String> seen() {
+        return Collections.unmodifiableSet(seen);
+    }
+
+    /** Results of pages finished before the restart, in finishing order. */
+    public Collection<CrawlEngine.PageResult> finished() {
+        return Collections.unmodifiableCollection(finished.values());
+    }
+
+    /** URLs that were queued (or in flight) but never finished. */
+    public List<String> pending() {
+        List<String> pending = new ArrayList<>();
+        for (String url : seen) {
+            if (!finished.containsKey(url)) pending.add(url);
+        }
+        return pending;
+    }
+
+    // ---------------------------------------------------------
+    // Writing
+    // ---------------------------------------------------------
+    public synchronized void queued(String url) {
+        write("Q", url);
+    }
+
+    public synchronized void done(CrawlEngine.PageResult r) {
+        write("D", r.url, String.valueOf(r.status), String.valueOf(r.skipped),
+                r.error == null ? "" : r.error, r.title == null ? "" : r.title,
+                String.join(" ", r.links));
+
+        if (++unflushed >= checkpointEvery() || System.currentTimeMillis() - lastFlush >= FLUSH_INTERVAL_MS) {
+            flush();
+        }
+    }
+
+    /** Mark the crawl as finished; a later resume starts from scratch. */
+    public synchronized void complete() {
+        write("END");
+        flush();
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            System.out.println("⚠ Could not close crawl checkpoint " + file + ": " + e.getMessage());
+        }
+    }
+
+    private void write(String... fields) {
+        try {
+            StringBuilder line = new StringBuilder();
+            for (int i = 0; i < fields.length; i++) {
+                if (i > 0) line.append('\t');
+                line.append(escape(fields[i]));
+            }
+            out.write(line.append('\n').toString());
+        } catch (IOException e) {
+            System.out.println("⚠ Crawl checkpoint write failed: " + e.getMessage());
+        }
+    }
+
+    private void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            System.out.println("⚠ Crawl checkpoint flush failed: " + e.getMessage());
+        }
+        unflushed = 0;
+        lastFlush = System.currentTimeMillis();
+    }
+
+    // ---------------------------------------------------------
+    // Replay
+    // ---------------------------------------------------------
+    private void load() throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] f = line.split("\t", -1);
+                for (int i = 0; i < f.length; i++) f[i] = unescape(f[i]);
+
+                switch (f[0]) {
+                    case "Q":
+                        if (f.length > 1) seen.add(f[1]);
+                        break;
+                    case "D":
+                        if (f.length < 7) break;   // torn last line
+                        CrawlEngine.PageResult r = new CrawlEngine.PageResult(f[1]);
+                        r.status = parseInt(f[2]);
+                        r.skipped = Boolean.parseBoolean(f[3]);
+                        r.error = f[4].isEmpty() ? null : f[4];
+                        r.title = f[5].isEmpty() ? null : f[5];
+                        if (!f[6].isEmpty()) r.links.addAll(Arrays.asList(f[6].split(" ")));
+                        seen.add(r.url);
+                        finished.put(r.url, r);
+                        break;
+                    case "END":
+                        // Completed crawl: nothing to resume
+                        seen.clear();
+                        finished.clear();
+                        return;
+                    default:
+                        break;
+                }
+            }
+        }
+        resumed = !seen.isEmpty();
+    }
+
+    private static int parseInt(String s) {
+        try {
+            return Integer.parseInt(s);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String escape(String s) {
+        return s.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String unescape(String s) {
+        if (s.indexOf('\\') < 0) return s;
+        StringBuilder out = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\' && i + 1 < s.length()) {
+                char n = s.charAt(++i);
+                out.append(n == 't' ? '\t' : n == 'n' ? '\n' : n == 'r' ? '\r' : n);
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+}
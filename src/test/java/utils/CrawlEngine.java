@@ -0,0 +1,298 @@
+package utils;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * ---------------------------------------------------------
+ * Reusable parallel crawl engine.
+ *
+ * N workers pull URLs from a shared CrawlFrontier, fetch them
+ * through their own PageHandler (one per worker, so a browser
+ * handler can own its WebDriver) and push the discovered links
+ * back into the frontier. Links are canonicalized before the
+ * follow filter sees them (see UrlCanonicalizer).
+ *
+ * Results are delivered to the listener one at a time, so
+ * report nodes and counters can be updated without locking.
+ *
+ * With checkpointTo() every queued URL and finished page is
+ * journaled; a resumed journal replays its finished pages to
+ * the listener and crawls only what was left.
+ *
+ * The frontier hands out the most important page first
+ * (prioritizeWith). maxDepth() stops following links that
+ * many clicks from the seed (-Dcrawl.maxDepth, default
+ * unlimited) and budget() ends the crawl when pages, time or
+ * bytes run out; what is still queued stays in the checkpoint.
+ *
+ * Discovered links that the host's robots.txt disallows are
+ * never queued (see RobotsTxt; -Dcrawl.robots=false to crawl
+ * them anyway) and page fetches are spaced by its Crawl-delay.
+ * The seed itself is always crawled.
+ * ---------------------------------------------------------
+ */
+public class CrawlEngine {
+
+    /** Number of workers for plain HTTP / Jsoup crawls. */
+    public static int httpWorkers() {
+        return Integer.getInteger("crawl.httpWorkers", 16);
+    }
+
+    /** Number of workers for crawls that need a real browser (one Chrome each). */
+    public static int browserWorkers() {
+        return Integer.getInteger("crawl.browserWorkers", 3);
+    }
+
+    /**
+     * Fetches a single page. Created once per worker and closed when the worker exits.
+     * A handler supplier may return null (e.g. no browser free): that worker is not started.
+     */
+    public interface PageHandler extends AutoCloseable {
+
+        PageResult fetch(String url) throws Exception;
+
+        @Override
+        default void close() {}
+    }
+
+    /** Outcome of one page: status, title and the links found on it. */
+    public static class PageResult {
+        public final String url;
+        public int status = -1;
+        public String title;
+        public String error;
+        public boolean skipped;
+        public long bytes;          // downloaded for this page (counts against the budget)
+        public int depth;           // clicks from the seed
+        public final List<String> links = new ArrayList<>();
+
+        public PageResult(String url) {
+            this.url = url;
+        }
+    }
+
+    private final int workers;
+    private final CrawlFrontier frontier = new CrawlFrontier();
+
+    private Predicate<String> skipFilter = url -> false;
+    private Predicate<String> followFilter = url -> true;
+    private CrawlCheckpoint checkpoint;
+    private CrawlBudget budget = CrawlBudget.unlimited();
+    private int maxDepth = Integer.getInteger("crawl.maxDepth", Integer.MAX_VALUE);
+    private RobotsTxt robots = RobotsTxt.enabled() ? RobotsTxt.shared() : null;
+    private final UrlIndex disallowed = new UrlIndex();
+
+    public CrawlEngine(int workers) {
+        this.workers = Math.max(1, workers);
+    }
+
+    /** URLs matching this are reported as skipped instead of being fetched. */
+    public CrawlEngine skipWhen(Predicate<String> filter) {
+        this.skipFilter = filter;
+        return this;
+    }
+
+    /** Only discovered links matching this are added to the frontier. */
+    public CrawlEngine followWhen(Predicate<String> filter) {
+        this.followFilter = filter;
+        return this;
+    }
+
+    /** Journal the crawl to this checkpoint (and resume from it if it was loaded). */
+    public CrawlEngine checkpointTo(CrawlCheckpoint checkpoint) {
+        this.checkpoint = checkpoint;
+        return this;
+    }
+
+    /** Most important pages first (sitemap priority, depth, failed last time). */
+    public CrawlEngine prioritizeWith(PagePriority priority) {
+        frontier.prioritizeWith(priority);
+        return this;
+    }
+
+    /** Stop when the site's page / time / byte budget is spent. */
+    public CrawlEngine budget(CrawlBudget budget) {
+        this.budget = budget;
+        return this;
+    }
+
+    /** Do not follow links from pages this many clicks from the seed. */
+    public CrawlEngine maxDepth(int depth) {
+        this.maxDepth = depth;
+        return this;
+    }
+
+    /** Honour these robots.txt rules (null: ignore robots.txt). */
+    public CrawlEngine respectRobots(RobotsTxt robots) {
+        this.robots = robots;
+        return this;
+    }
+
+    public CrawlBudget budget() {
+        return budget;
+    }
+
+    /** Why the crawl stopped early (budget), or null if it ran to the end. */
+    public String stoppedEarly() {
+        return budget.exhaustedReason();
+    }
+
+    public CrawlFrontier frontier() {
+        return frontier;
+    }
+
+    /**
+     * Number of pages scheduled during the crawl (fetched or skipped). The
+     * URLs themselves reach the listener; the engine does not keep them.
+     */
+    public int visitedCount() {
+        return frontier.seenCount();
+    }
+
+    /** Number of distinct discovered links left out because robots.txt disallows them. */
+    public int disallowedCount() {
+        return disallowed.size();
+    }
+
+    /**
+     * Crawl from the seed until the frontier is drained.
+     * Blocks the calling thread until every worker has finished.
+     */
+    public void crawl(String seed, Supplier<? extends PageHandler> handlers,
+                      Consumer<PageResult> listener) throws InterruptedException {
+
+        if (checkpoint != null && checkpoint.isResumed()) {
+            // Rebuild report nodes / counters first, then crawl only the unfinished URLs
+            for (PageResult done : checkpoint.finished()) listener.accept(done);
+            frontier.restore(checkpoint.seen(), checkpoint.pending());
+            System.out.println("♻ Resuming crawl from " + checkpoint.file() + ": "
+                    + checkpoint.finished().size() + " pages done, " + checkpoint.pending().size() + " pending");
+        } else {
+            if (robots != null && !robots.allowed(seed)) {
+                System.out.println("🤖 robots.txt disallows the seed " + seed + "; crawling it anyway");
+            }
+            offer(seed, 0);
+        }
+        budget.start();
+
+        AtomicInteger ids = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "crawl-worker-" + ids.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        for (int i = 0; i < workers; i++) {
+            pool.execute(() -> runWorker(handlers, listener));
+        }
+
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+
+        if (checkpoint != null) {
+            // Workers that could not start, or a spent budget, leave URLs queued: keep the journal resumable
+            if (frontier.pending() == 0 && stoppedEarly() == null) checkpoint.complete();
+            checkpoint.close();
+        }
+    }
+
+    private void offer(String url, int depth) {
+        offerCanonical(UrlCanonicalizer.canonical(url), depth);
+    }
+
+    private void offerCanonical(String canonical, int depth) {
+        if (frontier.offerCanonical(canonical, depth) && checkpoint != null) checkpoint.queued(canonical);
+    }
+
+    private boolean allowedByRobots(String canonical) {
+        if (robots == null) return true;
+        if (disallowed.containsCanonical(canonical)) return false;
+        if (robots.allowed(canonical)) return true;
+
+        disallowed.addCanonical(canonical);
+        return false;
+    }
+
+    private void runWorker(Supplier<? extends PageHandler> handlers, Consumer<PageResult> listener) {
+
+        PageHandler handler;
+        try {
+            handler = handlers.get();
+        } catch (Exception e) {
+            System.out.println("❌ Crawl worker could not start: " + e.getMessage());
+            return;
+        }
+        if (handler == null) {
+            System.out.println("ℹ " + Thread.currentThread().getName() + " not started (no browser free), crawling with fewer workers");
+            return;
+        }
+
+        try (handler) {
+            CrawlFrontier.Item item;
+            while ((item = frontier.take()) != null) {
+                String url = item.url;
+                try {
+                    if (!skipFilter.test(url) && !budget.tryStartPage()) {
+                        // Out of budget: leave the rest queued (and resumable in the checkpoint)
+                        frontier.close();
+                        break;
+                    }
+
+                    if (robots != null && !skipFilter.test(url)) {
+                        HostPoliteness.shared().awaitCrawlDelay(HostPoliteness.hostOf(url), robots.crawlDelayMs(url));
+                    }
+
+                    PageResult result = process(handler, url);
+                    result.depth = item.depth;
+                    budget.addBytes(result.bytes);
+
+                    if (item.depth < maxDepth) {
+                        for (String link : result.links) {
+                            String canonical = UrlCanonicalizer.canonical(link);
+                            if (canonical != null && !frontier.isSeen(canonical) && followFilter.test(canonical)
+                                    && allowedByRobots(canonical)) {
+                                offerCanonical(canonical, item.depth + 1);
+                            }
+                        }
+                    }
+
+                    synchronized (this) {
+                        listener.accept(result);
+                    }
+                    if (checkpoint != null) checkpoint.done(result);
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    System.out.println("❌ Crawl listener error on " + url + ": " + e.getMessage());
+                } finally {
+                    frontier.done();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private PageResult process(PageHandler handler, String url) {
+
+        if (skipFilter.test(url)) {
+            PageResult skipped = new PageResult(url);
+            skipped.skipped = true;
+            return skipped;
+        }
+
+        try {
+            PageResult result = handler.fetch(url);
+            return result != null ? result : new PageResult(url);
+        } catch (Exception e) {
+            PageResult failed = new PageResult(url);
+            failed.error = e.getMessage();
+            return failed;
+        }
+    }
+}
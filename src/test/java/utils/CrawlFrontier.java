@@ -0,0 +1,137 @@
+package utils;
+
+import java.util.*;
+
+/**
+ * ---------------------------------------------------------
+ * Thread-safe crawl frontier shared by all crawl workers.
+ *
+ * - offer() schedules a URL once: URLs are canonicalized first
+ *   (UrlCanonicalizer) and de-duplicated by UrlCanonicalizer.key,
+ *   so /page, /page/ and /page?utm_source=x are one page;
+ *   each URL is canonicalized once and the seen set works on
+ *   that string (offerCanonical for callers that already did)
+ * - the seen set is a UrlIndex (64-bit hashes, no strings), so
+ *   only queued URLs are held as text; -Dcrawl.bloom=true adds
+ *   its Bloom filter front for crawls in the 100k+ range
+ * - the queue is ordered by PagePriority (link depth, sitemap
+ *   <priority>, failed last time); without hints that is BFS
+ * - take() blocks until a URL is available and returns null once
+ *   the queue is empty and no worker is still processing a page
+ * - every successful take() must be paired with a done()
+ * ---------------------------------------------------------
+ */
+public class CrawlFrontier {
+
+    /** A queued page and how many clicks it is from the seed. */
+    public static class Item {
+        public final String url;
+        public final int depth;
+        final double score;
+        final long seq;
+
+        Item(String url, int depth, double score, long seq) {
+            this.url = url;
+            this.depth = depth;
+            this.score = score;
+            this.seq = seq;
+        }
+    }
+
+    private final PriorityQueue<Item> queue = new PriorityQueue<>(
+            Comparator.comparingDouble((Item i) -> i.score).thenComparingLong(i -> i.seq));
+    private PagePriority priority = new PagePriority();
+    private long seq = 0;
+    private final UrlIndex seen = Boolean.getBoolean("crawl.bloom")
+            ? new UrlIndex(1 << 16).withBloomFilter(Integer.getInteger("crawl.expectedUrls", 500_000))
+            : new UrlIndex();
+
+    private int inFlight = 0;
+    private boolean closed = false;
+
+    /** Order the queue with these hints (set before the crawl starts). */
+    public synchronized CrawlFrontier prioritizeWith(PagePriority priority) {
+        this.priority = priority;
+        return this;
+    }
+
+    /** Schedule a seed URL (depth 0). */
+    public boolean offer(String url) {
+        return offer(url, 0);
+    }
+
+    /** Schedule a URL. Returns false if the same page was already seen or the crawl is closed. */
+    public synchronized boolean offer(String url, int depth) {
+        if (closed || url == null) return false;
+
+        return offerCanonical(UrlCanonicalizer.canonical(url), depth);
+    }
+
+    /** offer() for a URL that is already UrlCanonicalizer.canonical. */
+    public synchronized boolean offerCanonical(String canonical, int depth) {
+        if (closed || canonical == null) return false;
+        if (!seen.addCanonical(canonical)) return false;
+
+        enqueue(canonical, depth);
+        notifyAll();
+        return true;
+    }
+
+    /**
+     * Resume a crawl: mark URLs as already seen and queue the unfinished ones.
+     * The journal has no link depth, so path depth stands in for it.
+     */
+    public synchronized void restore(Collection<String> seenUrls, Collection<String> pendingUrls) {
+        for (String url : seenUrls) seen.add(url);
+
+        UrlIndex queued = new UrlIndex(pendingUrls.size());
+        for (String url : pendingUrls) {
+            String canonical = UrlCanonicalizer.canonical(url);
+            seen.addCanonical(canonical);
+            if (queued.addCanonical(canonical)) enqueue(canonical, PagePriority.pathDepth(canonical));
+        }
+        notifyAll();
+    }
+
+    /** Most important queued page, or null when the crawl is drained or closed. */
+    public synchronized Item take() throws InterruptedException {
+        while (!closed && queue.isEmpty()) {
+            if (inFlight == 0) return null;
+            wait();
+        }
+        if (closed) return null;
+
+        inFlight++;
+        return queue.poll();
+    }
+
+    /** Mark a URL obtained from take() as fully processed. */
+    public synchronized void done() {
+        inFlight--;
+        if (inFlight == 0 && queue.isEmpty()) notifyAll();
+    }
+
+    /** Stop handing out URLs; waiting workers return null. */
+    public synchronized void close() {
+        closed = true;
+        notifyAll();
+    }
+
+    /** Whether a canonical URL's page was already scheduled. */
+    public boolean isSeen(String canonical) {
+        return canonical != null && seen.containsCanonical(canonical);
+    }
+
+    /** Number of pages scheduled so far (one per page key). */
+    public int seenCount() {
+        return seen.size();
+    }
+
+    public synchronized int pending() {
+        return queue.size();
+    }
+
+    private void enqueue(String url, int depth) {
+        queue.add(new Item(url, depth, priority.scoreCanonical(url, depth), seq++));
+    }
+}
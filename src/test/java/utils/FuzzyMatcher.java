@@ -0,0 +1,123 @@
+package utils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ---------------------------------------------------------
+ * Approximate substring search ("is the needle somewhere in
+ * the page, allowing a few typos?").
+ *
+ * Similarity keeps the old fuzzyMatch meaning:
+ *     1 - editDistance / needleLength >= threshold
+ * but the distance is measured against the best-matching
+ * window of the text instead of the whole page, so at most
+ * k = (1 - threshold) * m edits are allowed.
+ *
+ * - needles up to 64 chars: Myers' bit-parallel algorithm,
+ *   one long per text character, O(n) time
+ * - longer needles: Ukkonen's cut-off DP, O(n·k) time
+ * Both use O(m) memory; no n×m matrix is ever allocated.
+ * ---------------------------------------------------------
+ */
+public class FuzzyMatcher {
+
+    /** True if some window of text is within the threshold of needle. */
+    public static boolean matches(String text, String needle, double threshold) {
+        if (text == null || needle == null || needle.isEmpty()) return false;
+
+        int maxEdits = (int) Math.floor((1.0 - threshold) * needle.length() + 1e-9);
+        if (maxEdits < 0) return false;
+
+        return bestDistance(text, needle, maxEdits) <= maxEdits;
+    }
+
+    /**
+     * Smallest edit distance between needle and any substring of text,
+     * or maxEdits + 1 if it is above maxEdits (search stops at the first hit).
+     */
+    public static int bestDistance(String text, String needle, int maxEdits) {
+        if (needle.length() <= maxEdits) return needle.length();   // the empty window already qualifies
+
+        return needle.length() <= Long.SIZE
+                ? myers(text, needle, maxEdits)
+                : ukkonen(text, needle, maxEdits);
+    }
+
+    // ---------------------------------------------------------
+    // Myers (1999): the DP column is kept as +1/-1 delta bit-vectors
+    // ---------------------------------------------------------
+    private static int myers(String text, String needle, int maxEdits) {
+        int m = needle.length();
+
+        long[] ascii = new long[128];
+        Map<Character, Long> other = new HashMap<>();
+        for (int i = 0; i < m; i++) {
+            char c = needle.charAt(i);
+            if (c < 128) ascii[c] |= 1L << i;
+            else other.merge(c, 1L << i, (x, y) -> x | y);
+        }
+
+        long pv = -1L;            // vertical +1 deltas (column starts as 0,1,2..m)
+        long mv = 0L;             // vertical -1 deltas
+        long last = 1L << (m - 1);
+        int score = m;
+        int best = m;
+
+        for (int j = 0; j < text.length(); j++) {
+            char c = text.charAt(j);
+            long eq = c < 128 ? ascii[c] : other.getOrDefault(c, 0L);
+
+            long xv = eq | mv;
+            long xh = (((eq & pv) + pv) ^ pv) | eq;
+            long ph = mv | ~(xh | pv);
+            long mh = pv & xh;
+
+            if ((ph & last) != 0) score++;
+            else if ((mh & last) != 0) score--;
+
+            // Row 0 stays 0 for substring search, so nothing is shifted in
+            ph <<= 1;
+            mh <<= 1;
+            pv = mh | ~(xv | ph);
+            mv = ph & xv;
+
+            if (score < best) {
+                best = score;
+                if (best <= maxEdits) return best;
+            }
+        }
+        return Math.min(best, maxEdits + 1);
+    }
+
+    // ---------------------------------------------------------
+    // Ukkonen cut-off: only rows that can still be <= k are computed
+    // ---------------------------------------------------------
+    private static int ukkonen(String text, String needle, int maxEdits) {
+        int m = needle.length();
+        int[] col = new int[m + 1];
+        for (int i = 0; i <= m; i++) col[i] = i;
+
+        int lastActive = Math.min(maxEdits, m);
+
+        for (int j = 0; j < text.length(); j++) {
+            char c = text.charAt(j);
+            int top = Math.min(lastActive + 1, m);
+            if (top > lastActive) col[top] = maxEdits + 1;   // previous value is known to be > k
+
+            int diag = 0;   // col[0] of the previous column (always 0)
+            for (int i = 1; i <= top; i++) {
+                int prev = col[i];
+                int cost = needle.charAt(i - 1) == c ? 0 : 1;
+                col[i] = Math.min(diag + cost, Math.min(col[i - 1], prev) + 1);
+                diag = prev;
+            }
+
+            lastActive = top;
+            while (lastActive > 0 && col[lastActive] > maxEdits) lastActive--;
+
+            if (lastActive == m) return col[m];
+        }
+        return maxEdits + 1;
+    }
+}
@@ -0,0 +1,163 @@
+package utils;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ---------------------------------------------------------
+ * Per-host circuit breaker and latency-based timeouts.
+ *
+ * Circuit: after -Dlinks.breakerFailures consecutive failures
+ * without a response (default 5: timeouts, refused, unknown
+ * host) the host's circuit opens. Requests to it fail fast.
+ * After -Dlinks.breakerOpenSec (default 30) one probe request
+ * is let through; success closes the circuit, failure opens
+ * it again. An unknown host or TLS failure opens the circuit
+ * on the first try; a malformed URL does not count at all.
+ * A probe that ends without saying anything about the host
+ * (interrupted, malformed URL) is handed back with
+ * releaseProbe(), so the next caller can probe instead.
+ *
+ * Timeouts: the latencies of the last 50 responses per host
+ * are kept. Once there are 10, the timeout for that host is
+ * 3 × p95, but never below -Dlinks.minTimeoutMs (default
+ * 2000) and never above the caller's configured timeout.
+ * ---------------------------------------------------------
+ */
+public class HostHealth {
+
+    private static final int WINDOW = 50;
+    private static final int MIN_SAMPLES = 10;
+    private static final int P95_MULTIPLIER = 3;
+
+    private static final HostHealth SHARED = new HostHealth(
+            Integer.getInteger("links.breakerFailures", 5),
+            Integer.getInteger("links.breakerOpenSec", 30) * 1000L,
+            Integer.getInteger("links.minTimeoutMs", 2000));
+
+    public static HostHealth shared() {
+        return SHARED;
+    }
+
+    private static class Host {
+        int consecutiveFailures = 0;
+        long openedAt = 0;              // 0 = closed
+        boolean probing = false;
+
+        final long[] latencies = new long[WINDOW];
+        int samples = 0;
+        int next = 0;
+    }
+
+    private final int failureThreshold;
+    private final long openMs;
+    private final int minTimeoutMs;
+    private final Map<String, Host> hosts = new ConcurrentHashMap<>();
+
+    public HostHealth(int failureThreshold, long openMs, int minTimeoutMs) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMs = Math.max(0, openMs);
+        this.minTimeoutMs = Math.max(1, minTimeoutMs);
+    }
+
+    /** True while requests to the host should fail fast (cooling down, or a probe is out). */
+    public boolean isOpen(String host) {
+        Host h = host(host);
+        synchronized (h) {
+            return h.openedAt != 0 && (h.probing || System.currentTimeMillis() - h.openedAt < openMs);
+        }
+    }
+
+    /** May a request be sent now? In half-open state only the first caller gets the probe. */
+    public boolean allowRequest(String host) {
+        Host h = host(host);
+        synchronized (h) {
+            if (h.openedAt == 0) return true;
+            if (h.probing || System.currentTimeMillis() - h.openedAt < openMs) return false;
+
+            h.probing = true;
+            return true;
+        }
+    }
+
+    /** Any HTTP response counts as the host being alive. */
+    public void onResponse(String host, long latencyMs) {
+        Host h = host(host);
+        synchronized (h) {
+            if (h.openedAt != 0) System.out.println("🔌 Circuit closed again for " + host);
+
+            h.consecutiveFailures = 0;
+            h.openedAt = 0;
+            h.probing = false;
+
+            h.latencies[h.next] = latencyMs;
+            h.next = (h.next + 1) % WINDOW;
+            h.samples = Math.min(WINDOW, h.samples + 1);
+        }
+    }
+
+    /** No response at all (timeout, refused, reset, DNS). */
+    public void onFailure(String host) {
+        onFailure(host, LinkResult.Failure.OTHER);
+    }
+
+    /**
+     * Typed form: failures that are not the host's fault (bad URL, circuit
+     * already open) only release a probe; a name that does not resolve or a
+     * broken certificate opens the circuit right away, as every retry would
+     * fail too.
+     */
+    public void onFailure(String host, LinkResult.Failure failure) {
+        if (!failure.countsAgainstHost()) {
+            releaseProbe(host);
+            return;
+        }
+
+        Host h = host(host);
+        synchronized (h) {
+            h.consecutiveFailures++;
+
+            boolean trip = h.consecutiveFailures >= failureThreshold || failure.hostUnusable();
+            if (h.probing || (h.openedAt == 0 && trip)) {
+                h.openedAt = System.currentTimeMillis();
+                h.probing = false;
+                System.out.println("🔌 Circuit open for " + host + " after " + h.consecutiveFailures
+                        + " failures in a row (last: " + failure + ") — failing fast for " + openMs / 1000 + " s");
+            }
+        }
+    }
+
+    /** A request ended without telling anything about the host: let another caller have the probe. */
+    public void releaseProbe(String host) {
+        Host h = host(host);
+        synchronized (h) {
+            h.probing = false;
+        }
+    }
+
+    public int consecutiveFailures(String host) {
+        Host h = host(host);
+        synchronized (h) {
+            return h.consecutiveFailures;
+        }
+    }
+
+    /** Timeout for the next request to this host, capped at the configured one. */
+    public int timeoutFor(String host, int configuredMs) {
+        Host h = host(host);
+        long p95;
+        synchronized (h) {
+            if (h.samples < MIN_SAMPLES) return configuredMs;
+
+            long[] sorted = Arrays.copyOf(h.latencies, h.samples);
+            Arrays.sort(sorted);
+            p95 = sorted[(int) Math.ceil(0.95 * sorted.length) - 1];
+        }
+        long adaptive = Math.max(minTimeoutMs, p95 * P95_MULTIPLIER);
+        return (int) Math.min(configuredMs, adaptive);
+    }
+
+    private Host host(String host) {
+        return hosts.computeIfAbsent(host == null ? "" : host.toLowerCase(), k -> new Host());
+    }
+}
@@ -0,0 +1,244 @@
+package utils;
+
+import java.net.URI;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ---------------------------------------------------------
+ * Per-host politeness shared by every HTTP check in the run.
+ *
+ * Each host has a token bucket:
+ *   -Dlinks.hostRps    requests per second (default 10)
+ *   -Dlinks.hostBurst  bucket size (default 10)
+ *
+ * The rate adapts to how the origin responds (AIMD):
+ * - 429, or 503 with Retry-After: the host is paused for
+ *   Retry-After (seconds or HTTP date; 2 s if missing) and
+ *   its rate is halved
+ * - if more than 30% of recent responses from the host are
+ *   errors (timeouts, refused, 5xx), the rate drops by 30%
+ *   (at most once per second)
+ * - every success adds 5% of the configured rate back
+ * The rate never goes below 0.5 requests per second.
+ *
+ * maxInFlight() scales the per-host concurrency down with the
+ * rate, so a struggling origin also gets fewer parallel
+ * requests. BatchLinkChecker schedules around delayMs()
+ * without blocking; the blocking acquire() is for single
+ * synchronous requests.
+ *
+ * Crawlers additionally space their page fetches by the
+ * host's robots.txt Crawl-delay (awaitCrawlDelay). That pacing
+ * is separate from the token bucket, so link checks against
+ * the same host are not slowed to one per Crawl-delay.
+ * ---------------------------------------------------------
+ */
+public class HostPoliteness {
+
+    private static final double MIN_RPS = 0.5;
+    private static final long DEFAULT_BACKOFF_MS = 2000;
+    private static final double ERROR_THRESHOLD = 0.30;
+    private static final double ERROR_SMOOTHING = 0.1;     // EWMA weight: ~ last 20 responses
+    private static final long MAX_RETRY_AFTER_MS = 120_000;
+
+    private static final HostPoliteness SHARED = new HostPoliteness(
+            Double.parseDouble(System.getProperty("links.hostRps", "10")),
+            Integer.getInteger("links.hostBurst", 10));
+
+    public static HostPoliteness shared() {
+        return SHARED;
+    }
+
+    private static class Host {
+        double rate;
+        double tokens;
+        long refilledAt = System.nanoTime();
+        long pausedUntil = 0;          // System.currentTimeMillis()
+        double errorRate = 0;
+        long lastSlowdown = 0;
+        long nextCrawlAt = 0;          // next page fetch allowed by Crawl-delay
+
+        Host(double rate, double burst) {
+            this.rate = rate;
+            this.tokens = burst;
+        }
+    }
+
+    private final double baseRps;
+    private final double burst;
+    private final Map<String, Host> hosts = new ConcurrentHashMap<>();
+
+    public HostPoliteness(double rps, int burst) {
+        this.baseRps = Math.max(MIN_RPS, rps);
+        this.burst = Math.max(1, burst);
+    }
+
+    /** Take a token if the host may be sent a request right now. */
+    public boolean tryAcquire(String host) {
+        Host h = host(host);
+        synchronized (h) {
+            if (waitMs(h) > 0) return false;
+            h.tokens -= 1;
+            return true;
+        }
+    }
+
+    /** Give back a token taken for a request that was never sent. */
+    public void refund(String host) {
+        Host h = host(host);
+        synchronized (h) {
+            h.tokens = Math.min(burst, h.tokens + 1);
+        }
+    }
+
+    /** Milliseconds until tryAcquire() can succeed for this host (0 = now). */
+    public long delayMs(String host) {
+        Host h = host(host);
+        synchronized (h) {
+            return waitMs(h);
+        }
+    }
+
+    /** Block until the host may be sent a request (for synchronous callers). */
+    public void acquire(String host) throws InterruptedException {
+        while (!tryAcquire(host)) {
+            Thread.sleep(Math.max(1, delayMs(host)));
+        }
+    }
+
+    /**
+     * Block until a crawler may fetch its next page from this host under a
+     * robots.txt Crawl-delay. Slots are handed out in turn, so N workers
+     * still fetch one page per delay; a Retry-After pause is honoured too.
+     */
+    public void awaitCrawlDelay(String host, long delayMs) throws InterruptedException {
+        if (delayMs <= 0) return;
+
+        Host h = host(host);
+        long waitMs;
+        synchronized (h) {
+            long now = System.currentTimeMillis();
+            long slot = Math.max(now, Math.max(h.nextCrawlAt, h.pausedUntil));
+            h.nextCrawlAt = slot + delayMs;
+            waitMs = slot - now;
+        }
+        if (waitMs > 0) Thread.sleep(waitMs);
+    }
+
+    /** Per-host concurrency, scaled down while the host is being slowed. */
+    public int maxInFlight(String host, int configured) {
+        Host h = host(host);
+        synchronized (h) {
+            return Math.max(1, (int) Math.round(configured * h.rate / baseRps));
+        }
+    }
+
+    /** Current requests-per-second budget for a host (for reporting). */
+    public double rate(String host) {
+        Host h = host(host);
+        synchronized (h) {
+            return h.rate;
+        }
+    }
+
+    /**
+     * Feed a response back. Returns true if the server asked us to back off
+     * (429, or 503 with Retry-After): the request is worth retrying later.
+     */
+    public boolean onResponse(String host, int status, String retryAfter) {
+        Host h = host(host);
+        synchronized (h) {
+            boolean throttled = status == 429 || (status == 503 && retryAfter != null);
+
+            if (throttled) {
+                long pauseMs = retryAfter == null ? DEFAULT_BACKOFF_MS : parseRetryAfter(retryAfter);
+                h.pausedUntil = Math.max(h.pausedUntil, System.currentTimeMillis() + pauseMs);
+                refill(h);
+                h.rate = Math.max(MIN_RPS, h.rate / 2);
+                h.tokens = Math.min(h.tokens, 0);
+                System.out.println("🐢 " + host + " asked to slow down (HTTP " + status + "), pausing "
+                        + pauseMs + " ms, rate now " + String.format("%.1f", h.rate) + "/s");
+                return true;
+            }
+
+            recordOutcome(h, status >= 500);
+            return false;
+        }
+    }
+
+    /** Feed a request that failed without a response (timeout, refused, reset). */
+    public void onError(String host) {
+        Host h = host(host);
+        synchronized (h) {
+            recordOutcome(h, true);
+        }
+    }
+
+    // ---------------------------------------------------------
+    // Internals (callers hold the Host lock)
+    // ---------------------------------------------------------
+    private Host host(String host) {
+        return hosts.computeIfAbsent(host == null ? "" : host.toLowerCase(), k -> new Host(baseRps, burst));
+    }
+
+    private long waitMs(Host h) {
+        long now = System.currentTimeMillis();
+        if (h.pausedUntil > now) return h.pausedUntil - now;
+
+        refill(h);
+        if (h.tokens >= 1) return 0;
+        return (long) Math.ceil((1 - h.tokens) * 1000 / h.rate);
+    }
+
+    private void refill(Host h) {
+        long now = System.nanoTime();
+        h.tokens = Math.min(burst, h.tokens + (now - h.refilledAt) / 1e9 * h.rate);
+        h.refilledAt = now;
+    }
+
+    private void recordOutcome(Host h, boolean error) {
+        h.errorRate = h.errorRate * (1 - ERROR_SMOOTHING) + (error ? ERROR_SMOOTHING : 0);
+
+        long now = System.currentTimeMillis();
+        if (h.errorRate > ERROR_THRESHOLD) {
+            if (now - h.lastSlowdown >= 1000) {
+                refill(h);
+                h.rate = Math.max(MIN_RPS, h.rate * 0.7);
+                h.lastSlowdown = now;
+            }
+        } else if (!error) {
+            refill(h);
+            h.rate = Math.min(baseRps, h.rate + baseRps * 0.05);
+        }
+    }
+
+    /** Retry-After is either delta-seconds or an HTTP date. */
+    static long parseRetryAfter(String value) {
+        String v = value.trim();
+        long ms;
+        try {
+            ms = Long.parseLong(v) * 1000;
+        } catch (NumberFormatException e) {
+            try {
+                ms = ZonedDateTime.parse(v, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli()
+                        - System.currentTimeMillis();
+            } catch (Exception unparsable) {
+                ms = DEFAULT_BACKOFF_MS;
+            }
+        }
+        return Math.max(0, Math.min(MAX_RETRY_AFTER_MS, ms));
+    }
+
+    /** Host key of a URL ("" if it has none). */
+    public static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host == null ? "" : host.toLowerCase();
+        } catch (Exception e) {
+            return "";
+        }
+    }
+}
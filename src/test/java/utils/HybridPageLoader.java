@@ -0,0 +1,429 @@
+package utils;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * ---------------------------------------------------------
+ * Loads a page as static HTML first and only renders it in
+ * Chrome when the HTML alone is not enough.
+ *
+ * The page is fetched over the shared HttpClient and parsed
+ * with Jsoup. It is escalated to the browser when:
+ * - the response is not HTML
+ * - there is no <header> or no <footer> in the static HTML
+ * - it looks like a client-side app (empty #root / #app /
+ *   [ng-app] mount point, "enable JavaScript" noscript, or
+ *   almost no body text next to script tags)
+ * - the site is flagged: forceBrowser(true), or its host is
+ *   listed in -Drender.browserHosts (comma separated)
+ *
+ * -Drender.mode=auto (default) | static | browser
+ *   static never starts Chrome, browser always does.
+ *
+ * scrollWhenRendered() scrolls until the page stops growing,
+ * at most -Drender.scrollMaxPasses (10) passes and
+ * -Drender.scrollBudgetMs (15000) in total.
+ *
+ * Either way the caller gets the same LoadedPage: header and
+ * footer text plus a Jsoup Document of the final HTML.
+ *
+ * A page that answers 404, 410 or 5xx, or fails in a way a
+ * retry would not fix (unknown host, bad certificate, open
+ * circuit), is never rendered: it comes back with its real
+ * status and error set, so validators report it as broken
+ * instead of checking an error page. Any other refusal (401,
+ * 403, 429: bot protection often answers these to non-browser
+ * clients) and transient failures (timeouts, resets) go to
+ * Chrome instead; with -Drender.mode=static they are errors.
+ *
+ * Given the ResultStore record of an earlier run, the static
+ * fetch is conditional (If-None-Match / If-Modified-Since);
+ * a 304 comes back as notModified without a document.
+ *
+ * Static fetches go through ResponseCache: a page another
+ * validator already downloaded this run is not fetched again.
+ * Requests that do go out use HostPoliteness and the HostHealth
+ * circuit breaker like every other fetch path.
+ * ---------------------------------------------------------
+ */
+public class HybridPageLoader {
+
+    // Below this much body text a page with scripts is treated as JS-rendered
+    private static final int MIN_STATIC_TEXT = 200;
+
+    private static final String CAPTURE_SCRIPT =
+            "var h = document.querySelector('header'), f = document.querySelector('footer');" +
+            "var nav = performance.getEntriesByType('navigation')[0];" +
+            "return [h ? h.innerText : '', f ? f.innerText : '', document.documentElement.outerHTML," +
+            "        nav && nav.responseStatus ? nav.responseStatus : 0," +
+            "        nav && nav.encodedBodySize ? nav.encodedBodySize : 0];";
+
+    private static final String SCROLL_SCRIPT =
+            "var before = document.body.scrollHeight;" +
+            "window.scrollTo(0, before);" +
+            "return before;";
+
+    /** auto, static or browser. */
+    public static String mode() {
+        return System.getProperty("render.mode", "auto").trim().toLowerCase();
+    }
+
+    /** Scroll passes before a still-growing (infinite-scroll) page is captured anyway. */
+    public static int scrollMaxPasses() {
+        return Integer.getInteger("render.scrollMaxPasses", 10);
+    }
+
+    /** Total time for scrolling one page to the bottom. */
+    public static long scrollBudgetMs() {
+        return Integer.getInteger("render.scrollBudgetMs", 15000);
+    }
+
+    /** Hosts that always need a real browser (-Drender.browserHosts=a.com,b.com). */
+    public static Set<String> browserHosts() {
+        Set<String> hosts = new HashSet<>();
+        for (String h : System.getProperty("render.browserHosts", "").split(",")) {
+            if (!h.isBlank()) hosts.add(h.trim().toLowerCase());
+        }
+        return hosts;
+    }
+
+    /** A page as the validators see it, however it was loaded. */
+    public static class LoadedPage {
+        public final String url;
+        public int status = -1;
+        public String header = "";       // <header> text (innerText when rendered)
+        public String footer = "";       // <footer> text
+        public String html = "";         // final HTML (outerHTML when rendered)
+        public Document doc;
+        public boolean rendered;         // true if Chrome was used
+        public String reason;            // why static HTML was not enough (null if it was)
+        public String error;             // HTTP error / fetch failure: the page is broken (null if it loaded)
+        public long bytes;               // body bytes downloaded for this load (0 from the cache or a 304)
+
+        public boolean notModified;      // 304 to a conditional request: nothing was downloaded
+        public String etag;
+        public String lastModified;
+        public String contentHash;       // ResultStore.contentHash of html
+
+        LoadedPage(String url) {
+            this.url = url;
+        }
+
+        /** Copy the revalidation data (ETag, Last-Modified, hash) into a store record. */
+        public void rememberIn(ResultStore.Record record) {
+            record.etag = etag;
+            record.lastModified = lastModified;
+            record.contentHash = contentHash;
+        }
+
+        /** alt text of every <img> on the page. */
+        public List<String> imageAlts() {
+            List<String> alts = new ArrayList<>();
+            if (doc == null) return alts;
+            for (Element img : doc.select("img[alt]")) {
+                if (!img.attr("alt").isBlank()) alts.add(img.attr("alt"));
+            }
+            return alts;
+        }
+
+        /** Absolute href of every <a>, without fragment. */
+        public List<String> links() {
+            List<String> links = new ArrayList<>();
+            if (doc == null) return links;
+            for (Element a : doc.select("a[href]")) {
+                String href = a.absUrl("href");
+                int hash = href.indexOf('#');
+                if (hash >= 0) href = href.substring(0, hash);
+                if (!href.isEmpty()) links.add(href);
+            }
+            return links;
+        }
+    }
+
+    private final Supplier<WebDriver> browser;
+
+    private boolean forceBrowser;
+    private boolean scrollWhenRendered;
+    private String authHost;
+    private String authHeader;
+
+    private int staticPages = 0;
+    private int renderedPages = 0;
+
+    /** The browser is only asked for when a page has to be rendered. */
+    public HybridPageLoader(Supplier<WebDriver> browser) {
+        this.browser = browser;
+    }
+
+    /** Per-site flag: this site is known to need JavaScript. */
+    public HybridPageLoader forceBrowser(boolean force) {
+        this.forceBrowser = force;
+        return this;
+    }
+
+    /** Scroll rendered pages to the bottom first so lazy sections load. */
+    public HybridPageLoader scrollWhenRendered(boolean scroll) {
+        this.scrollWhenRendered = scroll;
+        return this;
+    }
+
+    /** Send HTTP Basic credentials to the site's own host on static fetches. */
+    public HybridPageLoader withBasicAuth(String host, String username, String password) {
+        this.authHost = host == null ? null : host.toLowerCase();
+        this.authHeader = "Basic " + Base64.getEncoder().encodeToString(
+                (username + ":" + password).getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        return this;
+    }
+
+    public int staticPages() {
+        return staticPages;
+    }
+
+    public int renderedPages() {
+        return renderedPages;
+    }
+
+    public LoadedPage load(String url) {
+        return load(url, null);
+    }
+
+    /** Load, revalidating against what an earlier run saw (previous may be null). */
+    public LoadedPage load(String url, ResultStore.Record previous) {
+        String mode = mode();
+
+        String reason = "browser".equals(mode) ? "-Drender.mode=browser" : null;
+        if (reason == null && forceBrowser) reason = "site flagged as JS-rendered";
+        if (reason == null && browserHosts().contains(hostOf(url))) reason = "host listed in -Drender.browserHosts";
+        int knownStatus = -1;
+        long staticBytes = 0;
+
+        if (reason == null) {
+            LoadedPage page = fetchStatic(url, previous);
+            String needs = page.reason;
+            if (page.notModified || page.error != null || needs == null) {
+                staticPages++;
+                return page;
+            }
+            if ("static".equals(mode)) {
+                // Nothing may render it: a refused or failed fetch is all there is
+                if (!LinkValidator.isOk(page.status)) page.error = needs;
+                staticPages++;
+                return page;
+            }
+            reason = needs;
+            knownStatus = LinkValidator.isOk(page.status) ? page.status : -1;   // a 403 to HttpClient says nothing about Chrome
+            staticBytes = page.bytes;
+        }
+
+        renderedPages++;
+        LoadedPage rendered = render(url, reason, knownStatus);
+        rendered.bytes += staticBytes;   // the static attempt was downloaded too
+        return rendered;
+    }
+
+    // ---------------------------------------------------------
+    // Static path: one GET, Jsoup parse, decide
+    // ---------------------------------------------------------
+    private LoadedPage fetchStatic(String url, ResultStore.Record previous) {
+        LoadedPage page = new LoadedPage(url);
+
+        try {
+            boolean authorized = authHeader != null && hostOf(url).equals(authHost);
+
+            // Another validator fetched it this run: no request at all (authenticated pages are never shared)
+            ResponseCache.Entry response = authorized ? null : ResponseCache.shared().lookupBody(url);
+            if (response == null) {
+                String host = hostOf(url);
+                HostHealth health = HostHealth.shared();
+                if (!health.allowRequest(host)) {
+                    return fetchFailed(page, LinkResult.failed(url, LinkResult.Failure.CIRCUIT_OPEN,
+                            "Skipped: circuit open for " + host + " (" + health.consecutiveFailures(host) + " failures in a row)"));
+                }
+
+                HttpRequest.Builder request = SharedHttpClient.request(url, "GET",
+                                health.timeoutFor(host, SharedHttpClient.requestTimeoutMs()))
+                        .header("Accept", "text/html,application/xhtml+xml");
+                if (authorized) request.header("Authorization", authHeader);
+                if (previous != null && previous.etag != null) request.header("If-None-Match", previous.etag);
+                if (previous != null && previous.lastModified != null) request.header("If-Modified-Since", previous.lastModified);
+
+                HttpResponse<byte[]> sent;
+                try {
+                    HostPoliteness.shared().acquire(host);
+
+                    long started = System.currentTimeMillis();
+                    sent = SharedHttpClient.get().send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+                    health.onResponse(host, System.currentTimeMillis() - started);
+
+                } catch (InterruptedException e) {
+                    health.releaseProbe(host);   // our cancellation, not the host's fault
+                    throw e;
+
+                } catch (IOException e) {
+                    LinkResult failed = LinkResult.failed(url, e);
+                    if (failed.failure.countsAgainstHost()) HostPoliteness.shared().onError(host);
+                    health.onFailure(host, failed.failure);
+                    return fetchFailed(page, failed);
+                }
+                HostPoliteness.shared().onResponse(host, sent.statusCode(),
+                        sent.headers().firstValue("Retry-After").orElse(null));
+                page.bytes = sent.body().length;
+
+                // A 304 only means something to this conditional request: keep it out of the cache
+                response = authorized || sent.statusCode() == 304
+                        ? ResponseCache.uncached(url, sent, sent.body())
+                        : ResponseCache.shared().storeResponse(url, sent, sent.body());
+            }
+
+            page.status = response.status;
+            page.etag = response.header("ETag");
+            page.lastModified = response.header("Last-Modified");
+
+            if (page.status == 304 && previous != null) {
+                page.notModified = true;
+                page.etag = page.etag != null ? page.etag : previous.etag;
+                page.lastModified = page.lastModified != null ? page.lastModified : previous.lastModified;
+                page.contentHash = previous.contentHash;
+                return page;
+            }
+
+            String type = response.header("Content-Type") == null ? "" : response.header("Content-Type");
+
+            if (!LinkValidator.isOk(page.status)) {
+                String answer = "HTTP " + page.status + " (" + LinkValidator.getStatusMessage(page.status) + ")";
+                if (brokenStatus(page.status)) page.error = answer;
+                else page.reason = answer + " to a non-browser client";
+                return page;
+            }
+            if (!type.isEmpty() && !type.toLowerCase().contains("html")) {
+                page.reason = "not HTML (" + type + ")";
+                return page;
+            }
+
+            page.html = response.bodyAsString();
+            page.contentHash = ResultStore.contentHash(page.html);
+            page.doc = Jsoup.parse(page.html, response.finalUrl);
+
+            Element header = page.doc.selectFirst("header");
+            Element footer = page.doc.selectFirst("footer");
+            page.header = header == null ? "" : header.text();
+            page.footer = footer == null ? "" : footer.text();
+
+            page.reason = needsBrowser(page.doc);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            page.error = "static fetch interrupted";
+        } catch (Exception e) {
+            return fetchFailed(page, LinkResult.failed(url, e));
+        }
+        return page;
+    }
+
+    // The page itself is gone or failing; anything else may still load in a real browser
+    private static boolean brokenStatus(int status) {
+        return status == 404 || status == 410 || status >= 500;
+    }
+
+    // No response: transient failures are worth a try in Chrome, the rest mark the page broken
+    private static LoadedPage fetchFailed(LoadedPage page, LinkResult failed) {
+        page.status = failed.status;
+        if (failed.retryable()) page.reason = "static fetch failed: " + failed.describe();
+        else page.error = failed.describe();
+        return page;
+    }
+
+    /** Why this static HTML cannot be trusted on its own, or null if it can. */
+    public static String needsBrowser(Document doc) {
+        if (doc.selectFirst("header") == null) return "no <header> in static HTML";
+        if (doc.selectFirst("footer") == null) return "no <footer> in static HTML";
+
+        for (Element mount : doc.select("#root, #app, #__next, [ng-app], [data-reactroot]")) {
+            if (mount.children().isEmpty() && mount.text().isBlank()) {
+                return "empty client-side mount point (" + mount.cssSelector() + ")";
+            }
+        }
+
+        for (Element noscript : doc.select("noscript")) {
+            String text = noscript.text().toLowerCase();
+            if (text.contains("enable javascript") || text.contains("requires javascript")) {
+                return "page asks for JavaScript";
+            }
+        }
+
+        if (doc.body() != null && doc.body().text().length() < MIN_STATIC_TEXT && !doc.select("script[src]").isEmpty()) {
+            return "almost no static text";
+        }
+        return null;
+    }
+
+    // ---------------------------------------------------------
+    // Browser path: same capture as before, one round-trip
+    // ---------------------------------------------------------
+    // knownStatus: the static fetch's status when escalated from it, -1 when not fetched statically
+    private LoadedPage render(String url, String reason, int knownStatus) {
+        LoadedPage page = new LoadedPage(url);
+        page.rendered = true;
+        page.reason = reason;
+
+        WebDriver driver = browser.get();
+        driver.get(url);
+        PageReadiness.waitForPage(driver);
+
+        if (scrollWhenRendered) scrollToBottom(driver);
+
+        List<?> parts = (List<?>) ((JavascriptExecutor) driver).executeScript(CAPTURE_SCRIPT);
+        page.header = String.valueOf(parts.get(0));
+        page.footer = String.valueOf(parts.get(1));
+        page.html = String.valueOf(parts.get(2));
+        page.contentHash = ResultStore.contentHash(page.html);
+        page.doc = Jsoup.parse(page.html, driver.getCurrentUrl());
+
+        // Navigation Timing has the status in recent Chrome; otherwise keep what the static fetch saw
+        int navigationStatus = ((Number) parts.get(3)).intValue();
+        page.status = navigationStatus > 0 ? navigationStatus : knownStatus;
+        page.bytes = ((Number) parts.get(4)).longValue();   // document body only (Navigation Timing); 0 if unknown or cached
+        if (page.status > 0 && !LinkValidator.isOk(page.status)) {
+            page.error = "HTTP " + page.status + " (" + LinkValidator.getStatusMessage(page.status) + ")";
+        }
+        return page;
+    }
+
+    // Until the height stops growing; infinite-scroll pages stop at the pass / time cap
+    private static void scrollToBottom(WebDriver driver) {
+        JavascriptExecutor js = (JavascriptExecutor) driver;
+        long deadline = System.currentTimeMillis() + scrollBudgetMs();
+        long last = -1;
+
+        for (int pass = 0; pass < scrollMaxPasses(); pass++) {
+            long height = ((Number) js.executeScript(SCROLL_SCRIPT)).longValue();
+            if (height == last) return;
+            last = height;
+
+            long left = deadline - System.currentTimeMillis();
+            if (left <= 0) break;
+            PageReadiness.settle(driver, Math.min(3000, left));
+        }
+        System.out.println("↕ Page still growing after scrolling, capture as-is: " + driver.getCurrentUrl());
+    }
+
+    private static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host == null ? "" : host.toLowerCase();
+        } catch (Exception e) {
+            return "";
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package utils;
+
+import java.io.EOFException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.channels.UnresolvedAddressException;
+import java.util.*;
+import javax.net.ssl.SSLException;
+
+/**
+ * ---------------------------------------------------------
+ * Typed outcome of one link check.
+ *
+ * Either the server answered (failure == NONE, status is the
+ * HTTP code) or the request never got a response, and failure
+ * says why. Each failure has the negative code that
+ * LinkValidator.getStatusMessage() already describes, so code
+ * that only looks at an int status keeps working.
+ *
+ * Timings: totalMs is the whole check, headersMs the time
+ * until the final response's headers arrived (TTFB, redirects
+ * included). java.net.http does not expose DNS / connect / TLS
+ * phases, so they are not split out.
+ *
+ * redirects holds every hop the client followed, oldest first;
+ * finalUrl is where the chain ended.
+ *
+ * retryable() is false where trying again cannot help: a name
+ * that does not resolve, a bad certificate, a malformed URL,
+ * an open circuit, or a 4xx other than 408 / 429.
+ * ---------------------------------------------------------
+ */
+public class LinkResult {
+
+    public enum Failure {
+        NONE(0),
+        OTHER(-1),
+        INVALID_URL(-2),
+        SSL(-3),
+        TIMEOUT(-4),
+        REFUSED(-5),
+        UNKNOWN_HOST(-6),
+        RESET(-7),
+        CLOSED(-8),
+        CIRCUIT_OPEN(-9);
+
+        public final int code;
+
+        Failure(int code) {
+            this.code = code;
+        }
+
+        /** Could the same request succeed if sent again shortly? */
+        public boolean retryable() {
+            switch (this) {
+                case OTHER:
+                case TIMEOUT:
+                case RESET:
+                case CLOSED:
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        /** Says something about the host rather than this one request (feeds the circuit breaker). */
+        public boolean countsAgainstHost() {
+            return this != NONE && this != INVALID_URL && this != CIRCUIT_OPEN;
+        }
+
+        /** Nothing on this host will work for a while: open its circuit at once. */
+        public boolean hostUnusable() {
+            return this == UNKNOWN_HOST || this == SSL;
+        }
+    }
+
+    /** One redirect the client followed. */
+    public static class Hop {
+        public final int status;
+        public final String url;
+
+        public Hop(int status, String url) {
+            this.status = status;
+            this.url = url;
+        }
+
+        @Override
+        public String toString() {
+            return status + " " + url;
+        }
+    }
+
+    public final String url;
+    public int status = -1;              // HTTP status, or failure.code
+    public Failure failure = Failure.OTHER;
+    public String error;                 // exception message / skip reason (null on a response)
+    public String finalUrl;
+    public final List<Hop> redirects = new ArrayList<>();
+    public long headersMs = -1;          // time to final response headers
+    public long totalMs = -1;
+
+    public LinkResult(String url) {
+        this.url = url;
+        this.finalUrl = url;
+    }
+
+    /** Result of a response: status, final URL and the redirect chain behind it. */
+    public static LinkResult of(String url, HttpResponse<?> response) {
+        LinkResult r = new LinkResult(url);
+        r.failure = Failure.NONE;
+        r.status = response.statusCode();
+        r.finalUrl = response.uri().toString();
+
+        for (HttpResponse<?> hop = response.previousResponse().orElse(null); hop != null;
+             hop = hop.previousResponse().orElse(null)) {
+            r.redirects.add(0, new Hop(hop.statusCode(), hop.uri().toString()));
+        }
+        return r;
+    }
+
+    /** Result of a request that got no response. */
+    public static LinkResult failed(String url, Throwable error) {
+        Throwable cause = unwrap(error);
+        LinkResult r = new LinkResult(url);
+        r.failure = classify(cause);
+        r.status = r.failure.code;
+        r.error = messageOf(cause);
+        return r;
+    }
+
+    public static LinkResult failed(String url, Failure failure, String error) {
+        LinkResult r = new LinkResult(url);
+        r.failure = failure;
+        r.status = failure.code;
+        r.error = error;
+        return r;
+    }
+
+    public boolean isOk() {
+        return failure == Failure.NONE && LinkValidator.isOk(status);
+    }
+
+    public boolean redirected() {
+        return !url.equals(finalUrl);
+    }
+
+    /** Worth another attempt? Transport hiccups, 408 / 429 and 5xx are; everything else is final. */
+    public boolean retryable() {
+        if (failure != Failure.NONE) return failure.retryable();
+        return status == 408 || status == 429 || status >= 500;
+    }
+
+    /** Short reason for the report when the check did not succeed. */
+    public String describe() {
+        if (failure != Failure.NONE) {
+            String message = LinkValidator.getStatusMessage(status);
+            if (error == null) return message;
+            return failure == Failure.CIRCUIT_OPEN ? error : message + ": " + error;
+        }
+        return "HTTP " + status + " (" + LinkValidator.getStatusMessage(status) + ")";
+    }
+
+    /** "301 http://a → 302 https://a → https://a/home" (just the URL without redirects). */
+    public String chain() {
+        StringBuilder out = new StringBuilder();
+        for (Hop hop : redirects) out.append(hop).append(" → ");
+        return out.append(finalUrl).toString();
+    }
+
+    // ---------------------------------------------------------
+    // Exception → failure category
+    // ---------------------------------------------------------
+    public static Failure classify(Throwable error) {
+        if (error == null) return Failure.OTHER;
+
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof UnknownHostException || t instanceof UnresolvedAddressException) return Failure.UNKNOWN_HOST;
+            if (t instanceof SSLException) return Failure.SSL;
+            if (t instanceof HttpTimeoutException || t instanceof SocketTimeoutException) return Failure.TIMEOUT;
+            if (t instanceof IllegalArgumentException) return Failure.INVALID_URL;
+        }
+
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            String message = t.getMessage() == null ? "" : t.getMessage().toLowerCase();
+            if (message.contains("reset")) return Failure.RESET;
+            if (t instanceof EOFException || message.contains("closed") || message.contains("received no bytes")) {
+                return Failure.CLOSED;
+            }
+            if (t instanceof ConnectException || t instanceof NoRouteToHostException
+                    || message.contains("refused")) return Failure.REFUSED;
+        }
+        return Failure.OTHER;
+    }
+
+    // HttpClient often throws a bare ConnectException around the exception that has the message
+    private static String messageOf(Throwable error) {
+        Throwable deepest = error;
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t.getMessage() != null && !t.getMessage().isBlank()) return t.getMessage();
+            deepest = t;
+        }
+        return deepest.getClass().getSimpleName();
+    }
+
+    // CompletableFuture wraps the real exception in CompletionException
+    private static Throwable unwrap(Throwable error) {
+        Throwable t = error;
+        while ((t instanceof java.util.concurrent.CompletionException
+                || t instanceof java.util.concurrent.ExecutionException) && t.getCause() != null) {
+            t = t.getCause();
+        }
+        return t;
+    }
+}
@@ -1,61 +1,150 @@
-package utils;
-
-import java.net.HttpURLConnection;
-import java.net.URI;
-
-public class LinkValidator {
-
-    public static int getStatus(String url) {
-        try {
-            HttpURLConnection connection =
-                    (HttpURLConnection) new URI(url).toURL().openConnection();
-
-            connection.setRequestMethod("GET");
-            connection.setConnectTimeout(10000); // 10 sec
-            connection.setReadTimeout(10000);    // 10 sec
-            connection.connect();
-
-            return connection.getResponseCode();
-
-        } catch (Exception e) {
-            return -1; // unreachable
-        }
-    }
-
-
-
-    public static boolean isOk(int code) {
-        return code >= 200 && code < 400;
-    }
-
-    public static String getStatusMessage(int code) {
-        switch (code) {
-            case -1:
-                return "No Response (General Error)";
-            case -3:
-                return "SSL Handshake Failed (Insecure Certificate)";
-            case -4:
-                return "Timeout (Server Took Too Long)";
-            case -5:
-                return "Connection Refused";
-            case -6:
-                return "Unknown Host (Domain Not Found)";
-            case -7:
-                return "Connection Reset by Server";
-            case -8:
-                return "Connection Closed by Server";
-            default:
-                return (code >= 200 && code < 400) ? "OK" : "HTTP Error " + code;
-        }
-    }
-
-	public static int getResponseCode(String url) {
-		// TODO Auto-generated method stub
-		return 0;
-	}
-
-	public static int getStatusCode(String url) {
-		// TODO Auto-generated method stub
-		return 0;
-	}
-}
+package utils;
+
+import java.net.http.HttpResponse;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+public class LinkValidator {
+
+    public static int getStatus(String url) {
+        return getStatus(url, "GET", SharedHttpClient.requestTimeoutMs());
+    }
+
+    /**
+     * Status code via the shared pooled client: the HTTP status, or the
+     * negative code of the failure (see LinkResult.Failure / getStatusMessage).
+     */
+    public static int getStatus(String url, String method, int timeoutMs) {
+        return check(url, method, timeoutMs).status;
+    }
+
+    /**
+     * Typed check: status or failure category, redirect chain and timings.
+     * The body is drained (not buffered) so the connection goes back to the
+     * keep-alive pool. Fails fast while the host's circuit is open (see
+     * HostHealth); the timeout shrinks to what the host's latency justifies.
+     * A URL already answered in this run is served from ResponseCache.
+     */
+    public static LinkResult check(String url, String method, int timeoutMs) {
+        ResponseCache.Entry cached = ResponseCache.shared().lookup(url, method);
+        if (cached != null) return cached.toResult(url);
+
+        String host = HostPoliteness.hostOf(url);
+        HostHealth health = HostHealth.shared();
+        if (!health.allowRequest(host)) {
+            return LinkResult.failed(url, LinkResult.Failure.CIRCUIT_OPEN,
+                    "Skipped: circuit open for " + host + " (" + health.consecutiveFailures(host) + " failures in a row)");
+        }
+
+        long started = System.currentTimeMillis();
+        long[] headersAt = {0};
+        LinkResult result;
+        try {
+            HostPoliteness.shared().acquire(host);
+
+            started = System.currentTimeMillis();
+            HttpResponse<Void> response = SharedHttpClient.get().send(
+                    SharedHttpClient.request(url, method, health.timeoutFor(host, timeoutMs)).build(),
+                    info -> {
+                        headersAt[0] = System.currentTimeMillis();
+                        return HttpResponse.BodySubscribers.discarding();
+                    });
+
+            result = LinkResult.of(url, response);
+            health.onResponse(host, headersAt[0] - started);
+            HostPoliteness.shared().onResponse(host, response.statusCode(),
+                    response.headers().firstValue("Retry-After").orElse(null));
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            health.releaseProbe(host);   // our cancellation, not the host's fault
+            result = LinkResult.failed(url, e);
+
+        } catch (Exception e) {
+            result = LinkResult.failed(url, e);
+            if (result.failure.countsAgainstHost()) HostPoliteness.shared().onError(host);
+            health.onFailure(host, result.failure);
+        }
+
+        result.headersMs = headersAt[0] == 0 ? -1 : headersAt[0] - started;
+        result.totalMs = System.currentTimeMillis() - started;
+        ResponseCache.shared().storeStatus(method, result);
+        return result;
+    }
+
+    /**
+     * Check many URLs concurrently. Limits come from -Dlinks.maxConcurrent
+     * (default 32) and -Dlinks.maxPerHost (default 6).
+     * The returned map keeps the input order; each future holds the status code.
+     */
+    public static Map<String, CompletableFuture<Integer>> getStatusAsync(Collection<String> urls,
+                                                                        String method, int timeoutMs) {
+        return getStatusAsync(urls, method, timeoutMs,
+                Integer.getInteger("links.maxConcurrent", 32),
+                Integer.getInteger("links.maxPerHost", 6));
+    }
+
+    public static Map<String, CompletableFuture<Integer>> getStatusAsync(Collection<String> urls,
+                                                                        String method, int timeoutMs,
+                                                                        int maxConcurrent, int maxPerHost) {
+        return new BatchLinkChecker(method, timeoutMs, maxConcurrent, maxPerHost).submitAll(urls);
+    }
+
+    /** Typed batch check: url → LinkResult, in input order, once every URL is done. */
+    public static Map<String, LinkResult> checkAll(Collection<String> urls, String method, int timeoutMs) {
+        BatchLinkChecker checker = new BatchLinkChecker(method, timeoutMs,
+                Integer.getInteger("links.maxConcurrent", 32),
+                Integer.getInteger("links.maxPerHost", 6));
+
+        Map<String, CompletableFuture<LinkResult>> pending = new LinkedHashMap<>();
+        for (String url : urls) pending.computeIfAbsent(url, checker::resolve);
+
+        Map<String, LinkResult> results = new LinkedHashMap<>();
+        pending.forEach((url, result) -> results.put(url, result.join()));
+        return results;
+    }
+
+    /** Blocking form of getStatusAsync: waits for every URL and returns url → status. */
+    public static Map<String, Integer> getStatusAll(Collection<String> urls, String method, int timeoutMs) {
+        Map<String, Integer> statuses = new LinkedHashMap<>();
+        getStatusAsync(urls, method, timeoutMs).forEach((url, status) -> statuses.put(url, status.join()));
+        return statuses;
+    }
+
+    public static boolean isOk(int code) {
+        return code >= 200 && code < 400;
+    }
+
+    public static String getStatusMessage(int code) {
+        switch (code) {
+            case -1:
+                return "No Response (General Error)";
+            case -2:
+                return "Invalid URL";
+            case -3:
+                return "SSL Handshake Failed (Insecure Certificate)";
+            case -4:
+                return "Timeout (Server Took Too Long)";
+            case -5:
+                return "Connection Refused";
+            case -6:
+                return "Unknown Host (Domain Not Found)";
+            case -7:
+                return "Connection Reset by Server";
+            case -8:
+                return "Connection Closed by Server";
+            case -9:
+                return "Skipped (Host Circuit Open)";
+            default:
+                return (code >= 200 && code < 400) ? "OK" : "HTTP Error " + code;
+        }
+    }
+
+	public static int getResponseCode(String url) {
+		return getStatus(url);
+	}
+
+	public static int getStatusCode(String url) {
+		return getStatus(url);
+	}
+}
@@ -0,0 +1,100 @@
+package utils;
+
+import java.util.*;
+
+/**
+ * ---------------------------------------------------------
+ * Decides which pages are worth checking first.
+ *
+ * Score (lower goes first):
+ *   link depth                       0 for the seed, +1 per click
+ *   - 4 × (sitemap <priority> - 0.5) pages without one count as 0.5
+ *   - 3 if the page failed its last validation (ResultStore)
+ *
+ * So a priority-1.0 page two clicks deep goes before an
+ * unlisted page one click deep, and last run's failures are
+ * re-checked before anything else at their depth. Ties keep
+ * discovery order, which without any hints is plain BFS.
+ *
+ * For flat sitemap lists (no link depth) the number of path
+ * segments stands in for depth: /about before /blog/2019/x.
+ * ---------------------------------------------------------
+ */
+public class PagePriority {
+
+    private static final double PRIORITY_WEIGHT = 4;
+    private static final double FAILED_BOOST = 3;
+    private static final double DEFAULT_PRIORITY = 0.5;
+
+    // Sitemap <priority> × 1000 per page key
+    private final UrlIndex sitemapPriority = new UrlIndex();
+    private ResultStore history;
+
+    /** Plain BFS order (no hints yet). */
+    public PagePriority() {
+    }
+
+    /** Take <priority> from sitemap entries. */
+    public PagePriority withSitemap(Collection<SitemapParser.SitemapEntry> entries) {
+        for (SitemapParser.SitemapEntry entry : entries) {
+            if (entry.loc == null || entry.priority == null) continue;
+            try {
+                double p = Double.parseDouble(entry.priority.trim());
+                sitemapPriority.put(entry.loc, (int) Math.round(Math.max(0, Math.min(1, p)) * 1000));
+            } catch (NumberFormatException ignored) {}
+        }
+        return this;
+    }
+
+    /** Boost pages whose last recorded validation failed. */
+    public PagePriority withHistory(ResultStore store) {
+        this.history = store;
+        return this;
+    }
+
+    public double score(String url, int depth) {
+        return scoreCanonical(UrlCanonicalizer.canonical(url), depth);
+    }
+
+    /** score() for a URL that is already UrlCanonicalizer.canonical (no allocation). */
+    public double scoreCanonical(String url, int depth) {
+        int stored = sitemapPriority.statusOfCanonical(url);
+        double priority = stored == UrlIndex.NO_STATUS ? DEFAULT_PRIORITY : stored / 1000.0;
+
+        double score = depth - PRIORITY_WEIGHT * (priority - DEFAULT_PRIORITY);
+        if (failedBefore(url)) score -= FAILED_BOOST;
+        return score;
+    }
+
+    public boolean failedBefore(String url) {
+        if (history == null) return false;
+        ResultStore.Record r = history.get(url);
+        return r != null && !r.passed;
+    }
+
+    /** A flat URL list (sitemap, link list) in checking order; path depth stands in for link depth. */
+    public List<String> order(Collection<String> urls) {
+        List<String> ordered = new ArrayList<>(urls);
+        Map<String, Double> scores = new HashMap<>();
+        for (String url : ordered) scores.put(url, score(url, pathDepth(url)));
+
+        ordered.sort(Comparator.comparingDouble(scores::get));   // stable: ties keep input order
+        return ordered;
+    }
+
+    static int pathDepth(String url) {
+        String path;
+        try {
+            path = java.net.URI.create(UrlCanonicalizer.canonical(url)).getPath();
+        } catch (Exception e) {
+            return 0;
+        }
+        if (path == null) return 0;
+
+        int depth = 0;
+        for (String segment : path.split("/")) {
+            if (!segment.isEmpty()) depth++;
+        }
+        return depth;
+    }
+}
@@ -0,0 +1,230 @@
+package utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonInput;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ---------------------------------------------------------
+ * Waits until a page is actually ready instead of sleeping
+ * a fixed amount after every navigation.
+ *
+ * A page is ready when all three hold at the same time:
+ * - document.readyState is "complete"
+ * - the network is idle: no more than -Dready.maxInflight
+ *   requests (default 2) for -Dready.networkQuietMs (500).
+ *   Tracked through the Chrome DevTools Network domain; if
+ *   CDP is not available the resource-timing entry count
+ *   has to stop growing instead
+ * - no DOM mutation for -Dready.domQuietMs (300): nodes
+ *   added / removed or text changed. Attribute changes are
+ *   ignored, so carousels, tickers and CSS animations that
+ *   keep rewriting style / class do not hold the page open
+ *
+ * Never waits longer than the budget (-Dready.maxWaitMs,
+ * default 10000). The first wait on a document takes at
+ * least -Dready.domQuietMs, as the mutation probe is only
+ * installed then; later waits on a quiet page return on the
+ * first poll. A page that uses up the budget is logged with
+ * the conditions that never settled.
+ *
+ * settle() is the same wait without the log, for short pauses
+ * between scroll steps and clicks: their budgets are often
+ * below the quiet windows, so running out is expected there.
+ * ---------------------------------------------------------
+ */
+public class PageReadiness {
+
+    private static final long POLL_MS = 100;
+
+    // Requests open longer than this are long-polls / beacons, not page loading
+    private static final long STALE_REQUEST_MS = 10000;
+
+    private static final String PROBE_SCRIPT =
+            "var w = window;" +
+            "if (!w.__readyProbe) {" +
+            "  w.__readyProbe = { last: Date.now() };" +
+            "  try {" +
+            "    new MutationObserver(function () { w.__readyProbe.last = Date.now(); })" +
+            "      .observe(document, { childList: true, subtree: true, characterData: true });" +
+            "  } catch (e) {}" +
+            "}" +
+            "var res = 0;" +
+            "try { res = performance.getEntriesByType('resource').length; } catch (e) {}" +
+            "return [document.readyState, Date.now() - w.__readyProbe.last, res];";
+
+    private static final NetworkTracker NO_CDP = new NetworkTracker();
+    private static final Map<WebDriver, NetworkTracker> TRACKERS =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    public static int maxWaitMs() {
+        return Integer.getInteger("ready.maxWaitMs", 10000);
+    }
+
+    public static int networkQuietMs() {
+        return Integer.getInteger("ready.networkQuietMs", 500);
+    }
+
+    public static int domQuietMs() {
+        return Integer.getInteger("ready.domQuietMs", 300);
+    }
+
+    public static int maxInflight() {
+        return Integer.getInteger("ready.maxInflight", 2);
+    }
+
+    /** Wait for the page after driver.get() / navigate() with the default budget. */
+    public static boolean waitForPage(WebDriver driver) {
+        return waitForPage(driver, maxWaitMs());
+    }
+
+    /**
+     * Wait until the page is ready or the budget runs out.
+     * Returns false when the budget was exhausted (the page is used as-is).
+     */
+    public static boolean waitForPage(WebDriver driver, long budgetMs) {
+        return await(driver, budgetMs, true);
+    }
+
+    /** waitForPage() for a pause between scroll steps / clicks: a spent budget is not logged. */
+    public static boolean settle(WebDriver driver, long budgetMs) {
+        return await(driver, budgetMs, false);
+    }
+
+    private static boolean await(WebDriver driver, long budgetMs, boolean logTimeout) {
+        if (driver == null) return false;
+
+        NetworkTracker network = trackerFor(driver);
+        long deadline = System.currentTimeMillis() + budgetMs;
+
+        long lastResources = -1;
+        long resourcesChangedAt = System.currentTimeMillis();
+        String waitingFor = "document";
+
+        while (true) {
+            long now = System.currentTimeMillis();
+
+            try {
+                List<?> probe = (List<?>) ((JavascriptExecutor) driver).executeScript(PROBE_SCRIPT);
+
+                boolean complete = "complete".equals(probe.get(0));
+                boolean domQuiet = ((Number) probe.get(1)).longValue() >= domQuietMs();
+
+                boolean networkIdle;
+                if (network != NO_CDP) {
+                    networkIdle = network.isIdle(networkQuietMs(), maxInflight());
+                } else {
+                    long resources = ((Number) probe.get(2)).longValue();
+                    if (resources != lastResources) {
+                        lastResources = resources;
+                        resourcesChangedAt = now;
+                    }
+                    networkIdle = now - resourcesChangedAt >= networkQuietMs();
+                }
+
+                if (complete && domQuiet && networkIdle) return true;
+
+                List<String> pending = new ArrayList<>();
+                if (!complete) pending.add("readyState " + probe.get(0));
+                if (!domQuiet) pending.add("DOM mutations");
+                if (!networkIdle) pending.add("network");
+                waitingFor = String.join(", ", pending);
+
+            } catch (Exception ignored) {
+                // Navigation in progress or no document yet — keep polling
+            }
+
+            if (now >= deadline) {
+                if (logTimeout) {
+                    System.out.println("⏳ Page not ready after " + budgetMs + " ms (waiting for " + waitingFor
+                            + "), using it as-is: " + currentUrl(driver));
+                }
+                return false;
+            }
+
+            try {
+                Thread.sleep(Math.min(POLL_MS, Math.max(1, deadline - now)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    private static String currentUrl(WebDriver driver) {
+        try {
+            return driver.getCurrentUrl();
+        } catch (Exception e) {
+            return "(unknown URL)";
+        }
+    }
+
+    // ---------------------------------------------------------
+    // CDP network tracking (one listener set per browser)
+    // ---------------------------------------------------------
+    private static class NetworkTracker {
+        final Map<String, Long> inFlight = new ConcurrentHashMap<>();
+        volatile long lastActivity = System.currentTimeMillis();
+
+        void started(String requestId) {
+            long now = System.currentTimeMillis();
+            inFlight.put(requestId, now);
+            lastActivity = now;
+        }
+
+        void finished(String requestId) {
+            inFlight.remove(requestId);
+            lastActivity = System.currentTimeMillis();
+        }
+
+        boolean isIdle(long quietMs, int maxInflight) {
+            long now = System.currentTimeMillis();
+            inFlight.values().removeIf(start -> now - start > STALE_REQUEST_MS);
+            return inFlight.size() <= maxInflight && now - lastActivity >= quietMs;
+        }
+    }
+
+    private static NetworkTracker trackerFor(WebDriver driver) {
+        return TRACKERS.computeIfAbsent(driver, PageReadiness::attach);
+    }
+
+    private static NetworkTracker attach(WebDriver driver) {
+        WebDriver target = driver;
+        if (!(target instanceof HasDevTools) && target instanceof WrapsDriver) {
+            target = ((WrapsDriver) target).getWrappedDriver();
+        }
+        if (!(target instanceof HasDevTools)) return NO_CDP;
+
+        try {
+            DevTools devTools = ((HasDevTools) target).getDevTools();
+            devTools.createSessionIfThereIsNotOne();
+
+            // Raw CDP commands/events so this does not depend on a versioned devtools module
+            NetworkTracker tracker = new NetworkTracker();
+            devTools.addListener(new Event<>("Network.requestWillBeSent", PageReadiness::requestId), tracker::started);
+            devTools.addListener(new Event<>("Network.loadingFinished", PageReadiness::requestId), tracker::finished);
+            devTools.addListener(new Event<>("Network.loadingFailed", PageReadiness::requestId), tracker::finished);
+            devTools.send(new Command<>("Network.enable", Map.of()));
+
+            return tracker;
+
+        } catch (Exception e) {
+            System.out.println("⚠ CDP network tracking unavailable, using resource timing: " + e.getMessage());
+            return NO_CDP;
+        }
+    }
+
+    private static String requestId(JsonInput input) {
+        Map<String, Object> params = input.read(Json.MAP_TYPE);
+        return String.valueOf(params.get("requestId"));
+    }
+}
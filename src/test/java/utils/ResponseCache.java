@@ -0,0 +1,547 @@
+package utils;
+
+import java.io.*;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ---------------------------------------------------------
+ * HTTP responses shared by every validator in the run, so a
+ * sitemap or page is downloaded once however many validators
+ * read it.
+ *
+ * On disk (-Dhttp.cacheDir, default http-cache/):
+ *   bodies/ab/abcdef…   response bodies named by their SHA-256,
+ *                        so identical bodies are stored once
+ *   index.tsv           one line per response: status, final
+ *                        URL, redirects, headers, body hash
+ * The index is also held in memory; lookups never touch disk.
+ * The cache only ever deletes those two: a directory holding
+ * anything else (-Dhttp.cacheDir=. by mistake) is left alone
+ * and the cache is disabled for the run.
+ *
+ * -Dhttp.cache=run (default)  entries live for this run only;
+ *                             index and bodies cleared at start
+ * -Dhttp.cache=ttl            entries survive across runs for
+ *                             -Dhttp.cacheTtlMinutes (default 60)
+ * -Dhttp.cache=off            every request goes to the network
+ *
+ * fetch() downloads a body (GET) straight to a file under
+ * bodies/, hashing it on the way, so a large sitemap never sits
+ * in memory; openBody() streams it back from that file. It goes
+ * through HostPoliteness and the HostHealth circuit breaker like
+ * every other request. Concurrent fetches of the same URL wait
+ * for one download. Status-only checks (LinkValidator,
+ * BatchLinkChecker) discard the body, so they are stored without
+ * one: they answer later status checks but not body fetches.
+ *
+ * Not cached: requests that got no response, retryable answers
+ * (408, 429, 5xx: a retry must really go out) and anything sent
+ * with an Authorization header. Entries are keyed by the
+ * canonical URL (UrlCanonicalizer.canonical).
+ * ---------------------------------------------------------
+ */
+public class ResponseCache {
+
+    private static final ResponseCache SHARED = new ResponseCache(mode(), cacheDir(), ttlMs());
+
+    public static ResponseCache shared() {
+        return SHARED;
+    }
+
+    /** run, ttl or off. */
+    public static String mode() {
+        return System.getProperty("http.cache", "run").trim().toLowerCase();
+    }
+
+    public static Path cacheDir() {
+        return Paths.get(System.getProperty("http.cacheDir", "http-cache"));
+    }
+
+    public static long ttlMs() {
+        return (long) (Double.parseDouble(System.getProperty("http.cacheTtlMinutes", "60")) * 60_000);
+    }
+
+    /** One cached response. */
+    public static class Entry {
+        public final String url;
+        public String method = "GET";
+        public int status;
+        public String finalUrl;
+        public final List<LinkResult.Hop> redirects = new ArrayList<>();
+        public final Map<String, String> headers = new LinkedHashMap<>();   // lower-case name → first value
+        public String bodyHash;          // null: status only, the body was not downloaded
+        public long bodyLength;
+        public long fetchedAt;
+
+        private byte[] inlineBody;       // body of a response that was not written to disk
+        private Path dir;
+
+        public Entry(String url) {
+            this.url = url;
+            this.finalUrl = url;
+        }
+
+        public boolean hasBody() {
+            return bodyHash != null || inlineBody != null;
+        }
+
+        public String header(String name) {
+            return headers.get(name.toLowerCase());
+        }
+
+        public byte[] body() throws IOException {
+            if (inlineBody != null) return inlineBody;
+            if (bodyHash == null) return new byte[0];
+            return Files.readAllBytes(bodyFile(dir, bodyHash));
+        }
+
+        public InputStream openBody() throws IOException {
+            if (inlineBody != null || bodyHash == null) return new ByteArrayInputStream(body());
+            return new BufferedInputStream(Files.newInputStream(bodyFile(dir, bodyHash)));
+        }
+
+        /** Body decoded with the Content-Type charset (UTF-8 if none). */
+        public String bodyAsString() throws IOException {
+            return new String(body(), charset());
+        }
+
+        /** The entry as a link-check result for the URL that was asked for. */
+        public LinkResult toResult(String requestedUrl) {
+            LinkResult r = new LinkResult(requestedUrl);
+            r.failure = LinkResult.Failure.NONE;
+            r.status = status;
+            r.finalUrl = finalUrl;
+            r.redirects.addAll(redirects);
+            r.headersMs = 0;
+            r.totalMs = 0;
+            return r;
+        }
+
+        private java.nio.charset.Charset charset() {
+            String type = header("Content-Type");
+            if (type != null) {
+                for (String part : type.split(";")) {
+                    String p = part.trim();
+                    if (p.toLowerCase().startsWith("charset=")) {
+                        try {
+                            return java.nio.charset.Charset.forName(p.substring(8).replace("\"", "").trim());
+                        } catch (Exception ignored) {}
+                    }
+                }
+            }
+            return StandardCharsets.UTF_8;
+        }
+    }
+
+    private final String mode;
+    private final Path dir;
+    private final long ttlMs;
+    private boolean enabled;
+    private final Map<String, Entry> index = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Entry>> downloading = new ConcurrentHashMap<>();
+    private BufferedWriter journal;
+
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger downloads = new AtomicInteger();
+    private final AtomicLong bytesSaved = new AtomicLong();
+
+    public ResponseCache(String mode, Path dir, long ttlMs) {
+        this.mode = mode;
+        this.dir = dir;
+        this.ttlMs = ttlMs;
+        this.enabled = !mode.equals("off");
+        if (!enabled) return;
+
+        try {
+            checkOwned();
+            if (mode.equals("run")) clear();
+            else load();
+
+            // Rewrite the index with what is still fresh, then append to it
+            Files.createDirectories(dir.resolve("bodies"));
+            journal = Files.newBufferedWriter(dir.resolve("index.tsv"), StandardCharsets.UTF_8);
+            for (Entry e : index.values()) journal(e);
+            pruneBodies();
+        } catch (IOException e) {
+            System.out.println("⚠ HTTP cache disabled, cannot use " + dir + ": " + e.getMessage());
+            enabled = false;
+            index.clear();
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "http-cache-close"));
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    // ---------------------------------------------------------
+    // Lookups (memory only)
+    // ---------------------------------------------------------
+    /**
+     * A fresh entry that answers a status check with this method: any entry
+     * with a body, or a status-only entry of the same method (or any for HEAD).
+     */
+    public Entry lookup(String url, String method) {
+        Entry e = fresh(url);
+        if (e == null) return null;
+        if (!e.hasBody() && !e.method.equals(method) && !method.equals("HEAD")) return null;
+        hits.incrementAndGet();
+        return e;
+    }
+
+    /** A fresh entry with a body, or null. */
+    public Entry lookupBody(String url) {
+        Entry e = fresh(url);
+        if (e == null || !e.hasBody()) return null;
+        hits.incrementAndGet();
+        bytesSaved.addAndGet(e.bodyLength);
+        return e;
+    }
+
+    // ---------------------------------------------------------
+    // Fetching and storing
+    // ---------------------------------------------------------
+    /**
+     * GET a URL with its body, from the cache when possible. Throws when no
+     * response arrived; any HTTP status (404, 500, ...) is returned.
+     */
+    public Entry fetch(String url, int timeoutMs) throws IOException, InterruptedException {
+        Entry cached = lookupBody(url);
+        if (cached != null) return cached;
+
+        String key = UrlCanonicalizer.canonical(url);
+        CompletableFuture<Entry> mine = new CompletableFuture<>();
+        CompletableFuture<Entry> running = enabled() ? downloading.putIfAbsent(key, mine) : null;
+
+        if (running != null) {
+            // Someone else is downloading it right now: share their response
+            try {
+                Entry e = running.get();
+                hits.incrementAndGet();
+                return e;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+                throw new IOException(e.getCause());
+            }
+        }
+
+        try {
+            Entry e = download(url, timeoutMs);
+            mine.complete(e);
+            return e;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            downloading.remove(key, mine);
+        }
+    }
+
+    /** Remember the outcome of a status check (no body). Failures and retryable answers are not kept. */
+    public void storeStatus(String method, LinkResult result) {
+        if (!enabled() || result.failure != LinkResult.Failure.NONE || result.retryable()) return;
+
+        Entry existing = fresh(result.url);
+        if (existing != null && existing.hasBody()) return;   // keep the richer entry
+
+        Entry e = new Entry(UrlCanonicalizer.canonical(result.url));
+        e.method = method;
+        e.status = result.status;
+        e.finalUrl = result.finalUrl;
+        e.redirects.addAll(result.redirects);
+        e.fetchedAt = System.currentTimeMillis();
+        put(e);
+    }
+
+    /** An entry for a response that must not be shared (kept in memory only). */
+    public static Entry uncached(String url, HttpResponse<?> response, byte[] body) {
+        Entry e = entryOf(url, response);
+        e.bodyLength = body.length;
+        e.inlineBody = body;
+        return e;
+    }
+
+    /** Remember a full response another loader downloaded itself. */
+    public Entry storeResponse(String url, HttpResponse<?> response, byte[] body) {
+        Entry e = uncached(url, response, body);
+
+        if (enabled() && !e.toResult(url).retryable()) {
+            try {
+                e.bodyHash = writeBody(new ByteArrayInputStream(body), e);
+                e.inlineBody = null;
+                put(e);
+            } catch (IOException io) {
+                System.out.println("⚠ Could not cache " + url + ": " + io.getMessage());
+            }
+        }
+        return e;
+    }
+
+    /** "42 hits, 120 downloads, 18.3 MB not downloaded again" for the report. */
+    public String describe() {
+        return hits.get() + " hits, " + downloads.get() + " downloads, "
+                + String.format("%.1f", bytesSaved.get() / 1048576.0) + " MB not downloaded again";
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    // ---------------------------------------------------------
+    // Internals
+    // ---------------------------------------------------------
+    private Entry download(String url, int timeoutMs) throws IOException, InterruptedException {
+        String host = HostPoliteness.hostOf(url);
+        HostHealth health = HostHealth.shared();
+        if (!health.allowRequest(host)) {
+            throw new IOException("Skipped: circuit open for " + host
+                    + " (" + health.consecutiveFailures(host) + " failures in a row)");
+        }
+
+        HttpResponse<InputStream> response;
+        try {
+            HostPoliteness.shared().acquire(host);
+
+            long started = System.currentTimeMillis();
+            response = SharedHttpClient.get().send(
+                    SharedHttpClient.request(url, "GET", health.timeoutFor(host, timeoutMs)).build(),
+                    HttpResponse.BodyHandlers.ofInputStream());
+            health.onResponse(host, System.currentTimeMillis() - started);
+
+        } catch (InterruptedException e) {
+            health.releaseProbe(host);   // our cancellation, not the host's fault
+            throw e;
+
+        } catch (IOException e) {
+            LinkResult.Failure failure = LinkResult.failed(url, e).failure;
+            if (failure.countsAgainstHost()) HostPoliteness.shared().onError(host);
+            health.onFailure(host, failure);
+            throw e;
+        }
+        downloads.incrementAndGet();
+        HostPoliteness.shared().onResponse(host, response.statusCode(),
+                response.headers().firstValue("Retry-After").orElse(null));
+
+        Entry e = entryOf(url, response);
+        try (InputStream body = response.body()) {
+            if (!enabled() || e.toResult(url).retryable()) {
+                // Not kept: an error page (or no cache directory) is read into memory as before
+                e.inlineBody = body.readAllBytes();
+                e.bodyLength = e.inlineBody.length;
+                return e;
+            }
+            e.bodyHash = writeBody(body, e);
+        }
+        put(e);
+        return e;
+    }
+
+    private Entry fresh(String url) {
+        if (!enabled() || url == null) return null;
+
+        Entry e = index.get(UrlCanonicalizer.canonical(url));
+        if (e == null) return null;
+        if (mode.equals("ttl") && System.currentTimeMillis() - e.fetchedAt > ttlMs) return null;
+        return e;
+    }
+
+    private static Entry entryOf(String url, HttpResponse<?> response) {
+        Entry e = new Entry(UrlCanonicalizer.canonical(url));
+        LinkResult r = LinkResult.of(url, response);
+        e.status = r.status;
+        e.finalUrl = r.finalUrl;
+        e.redirects.addAll(r.redirects);
+        response.headers().map().forEach((name, values) -> {
+            if (!values.isEmpty()) e.headers.put(name.toLowerCase(), values.get(0));
+        });
+        e.fetchedAt = System.currentTimeMillis();
+        return e;
+    }
+
+    private void put(Entry e) {
+        e.dir = dir;
+        index.put(e.url, e);
+        journal(e);
+    }
+
+    // Stream a body into bodies/ under a temp name, hashing as it goes, then move it to its hash
+    private String writeBody(InputStream body, Entry e) throws IOException {
+        Path bodies = dir.resolve("bodies");
+        Files.createDirectories(bodies);
+        Path tmp = Files.createTempFile(bodies, "download", ".tmp");
+        try {
+            MessageDigest sha256 = sha256();
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(tmp), sha256)) {
+                e.bodyLength = body.transferTo(out);
+            }
+            String hash = hex(sha256.digest());
+
+            Path file = bodyFile(dir, hash);
+            if (!Files.exists(file)) {   // same content may already be stored
+                Files.createDirectories(file.getParent());
+                try {
+                    Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException raced) {
+                    // another download stored it first
+                }
+            }
+            return hash;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static Path bodyFile(Path dir, String hash) {
+        return dir.resolve("bodies").resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(byte[] digest) {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest) hex.append(String.format("%02x", b));
+        return hex.toString();
+    }
+
+    // ---------------------------------------------------------
+    // index.tsv: key, method, status, fetchedAt, finalUrl, bodyHash, bodyLength, redirects, headers
+    // ---------------------------------------------------------
+    private synchronized void journal(Entry e) {
+        if (journal == null) return;
+
+        StringBuilder redirects = new StringBuilder();
+        for (LinkResult.Hop hop : e.redirects) redirects.append(hop.status).append(' ').append(hop.url).append(' ');
+
+        StringBuilder headers = new StringBuilder();
+        e.headers.forEach((name, value) -> {
+            if (headers.length() > 0) headers.append('&');
+            headers.append(URLEncoder.encode(name, StandardCharsets.UTF_8)).append('=')
+                    .append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+        });
+
+        try {
+            journal.write(String.join("\t", e.url, e.method, String.valueOf(e.status), String.valueOf(e.fetchedAt),
+                    e.finalUrl, e.bodyHash == null ? "" : e.bodyHash, String.valueOf(e.bodyLength),
+                    redirects.toString().trim(), headers.toString()));
+            journal.write('\n');
+            journal.flush();
+        } catch (IOException io) {
+            System.out.println("⚠ Could not write HTTP cache index: " + io.getMessage());
+        }
+    }
+
+    private void load() throws IOException {
+        Path file = dir.resolve("index.tsv");
+        if (!Files.exists(file)) return;
+
+        long now = System.currentTimeMillis();
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] f = line.split("\t", -1);
+                if (f.length < 9) continue;
+
+                Entry e = new Entry(f[0]);
+                e.method = f[1];
+                try {
+                    e.status = Integer.parseInt(f[2]);
+                    e.fetchedAt = Long.parseLong(f[3]);
+                    e.bodyLength = Long.parseLong(f[6]);
+                } catch (NumberFormatException bad) {
+                    continue;
+                }
+                if (now - e.fetchedAt > ttlMs) continue;
+
+                e.finalUrl = f[4];
+                e.bodyHash = f[5].isEmpty() ? null : f[5];
+                if (e.bodyHash != null && !Files.exists(bodyFile(dir, e.bodyHash))) continue;
+
+                String[] hops = f[7].isEmpty() ? new String[0] : f[7].split(" ");
+                for (int i = 0; i + 1 < hops.length; i += 2) {
+                    e.redirects.add(new LinkResult.Hop(Integer.parseInt(hops[i]), hops[i + 1]));
+                }
+                for (String header : f[8].split("&")) {
+                    String[] kv = header.split("=", 2);
+                    if (kv.length == 2) {
+                        e.headers.put(URLDecoder.decode(kv[0], StandardCharsets.UTF_8),
+                                URLDecoder.decode(kv[1], StandardCharsets.UTF_8));
+                    }
+                }
+                e.dir = dir;
+                index.put(e.url, e);
+            }
+        }
+        System.out.println("🗄 HTTP cache: " + index.size() + " responses younger than "
+                + ttlMs / 60_000 + " min loaded from " + dir);
+    }
+
+    // Bodies no fresh entry refers to (expired in ttl mode)
+    private void pruneBodies() throws IOException {
+        Set<String> live = new HashSet<>();
+        for (Entry e : index.values()) if (e.bodyHash != null) live.add(e.bodyHash);
+
+        try (var paths = Files.walk(dir.resolve("bodies"))) {
+            paths.filter(Files::isRegularFile)
+                    .filter(p -> !live.contains(p.getFileName().toString()))
+                    .forEach(p -> p.toFile().delete());
+        }
+    }
+
+    // The directory must hold nothing but what the cache writes, or it is not ours to clear
+    private void checkOwned() throws IOException {
+        if (!Files.exists(dir)) return;
+
+        List<String> foreign = new ArrayList<>();
+        try (var entries = Files.list(dir)) {
+            entries.forEach(p -> {
+                String name = p.getFileName().toString();
+                boolean owned = name.equals("index.tsv") ? Files.isRegularFile(p)
+                        : name.equals("bodies") && Files.isDirectory(p);
+                if (!owned) foreign.add(name);
+            });
+        }
+        if (!foreign.isEmpty()) {
+            Collections.sort(foreign);
+            throw new IOException("it holds files the cache did not write ("
+                    + String.join(", ", foreign.subList(0, Math.min(3, foreign.size())))
+                    + (foreign.size() > 3 ? ", ..." : "") + ")");
+        }
+    }
+
+    // Only index.tsv and bodies/ (checkOwned ran first); the directory itself stays
+    private void clear() throws IOException {
+        Files.deleteIfExists(dir.resolve("index.tsv"));
+
+        Path bodies = dir.resolve("bodies");
+        if (!Files.exists(bodies)) return;
+        try (var paths = Files.walk(bodies)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private synchronized void close() {
+        if (journal == null) return;
+        try {
+            journal.close();
+        } catch (IOException ignored) {}
+        journal = null;
+        if (hits.get() > 0) System.out.println("🗄 HTTP cache: " + describe());
+    }
+}
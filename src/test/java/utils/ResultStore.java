@@ -0,0 +1,187 @@
+package utils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ---------------------------------------------------------
+ * Remembers, per URL, what the page looked like the last time
+ * it was validated and whether that validation passed.
+ *
+ * Stored: sitemap <lastmod>, ETag, Last-Modified and a hash
+ * of the content. With -Dincremental=true the validators skip
+ * a page that passed last time and has not changed since:
+ * - its sitemap lastmod is the same, or
+ * - the server answered 304 to If-None-Match /
+ *   If-Modified-Since, or
+ * - the content hash is the same.
+ * New, changed and previously failing pages are re-checked.
+ *
+ * Each record also keeps a hash of what the page was checked
+ * against (the client row and the validator's settings, see
+ * inputsHash). If the expectations changed since, e.g. a new
+ * phone number in client_brief.csv, the page counts as changed
+ * and is checked again however unchanged the page itself is.
+ *
+ * Results are recorded on every run (incremental or not) so
+ * the next run has a baseline. One TSV file per validator in
+ * -Dincremental.storeDir (default result-store/).
+ * ---------------------------------------------------------
+ */
+public class ResultStore {
+
+    public static boolean incremental() {
+        return Boolean.getBoolean("incremental");
+    }
+
+    public static Path storeDir() {
+        return Paths.get(System.getProperty("incremental.storeDir", "result-store"));
+    }
+
+    /** What is known about one URL from its last validation. */
+    public static class Record {
+        public final String url;
+        public String lastmod;          // sitemap <lastmod>
+        public String etag;
+        public String lastModified;     // Last-Modified response header
+        public String contentHash;
+        public String inputsHash;       // what the page was checked against (inputsHash)
+        public boolean passed;
+        public long checkedAt;
+
+        public Record(String url) {
+            this.url = url;
+        }
+    }
+
+    /** Store for one validator (e.g. "header-footer-checker"). */
+    public static ResultStore open(String name) {
+        return new ResultStore(storeDir().resolve(name + ".tsv"));
+    }
+
+    private final Path file;
+    private final Map<String, Record> records = new ConcurrentHashMap<>();
+
+    public ResultStore(Path file) {
+        this.file = file;
+        load();
+    }
+
+    public int size() {
+        return records.size();
+    }
+
+    /** Last record for a URL, or null if it was never validated. */
+    public Record get(String url) {
+        return records.get(url);
+    }
+
+    /**
+     * The last record if this run is incremental and that validation passed
+     * against the same inputs, else null. Only such pages may be skipped, so
+     * only they get conditional requests.
+     */
+    public Record previous(String url, String inputsHash) {
+        Record r = incremental() ? records.get(url) : null;
+        return r != null && r.passed && Objects.equals(inputsHash, r.inputsHash) ? r : null;
+    }
+
+    /** Incremental mode and the page passed last time with the same sitemap lastmod and inputs. */
+    public boolean unchangedByLastmod(String url, String lastmod, String inputsHash) {
+        Record r = previous(url, inputsHash);
+        return r != null && lastmod != null && !lastmod.isEmpty() && lastmod.equals(r.lastmod);
+    }
+
+    /** Incremental mode and the page passed last time with the same content and inputs. */
+    public boolean unchangedContent(String url, String contentHash, String inputsHash) {
+        Record r = previous(url, inputsHash);
+        return r != null && contentHash != null && contentHash.equals(r.contentHash);
+    }
+
+    /** Record (or refresh) the outcome of validating a URL against these inputs. */
+    public Record record(String url, boolean passed, String inputsHash) {
+        Record r = records.computeIfAbsent(url, Record::new);
+        r.passed = passed;
+        r.inputsHash = inputsHash;
+        r.checkedAt = System.currentTimeMillis();
+        return r;
+    }
+
+    /** Hash of everything a page is checked against (client row fields, thresholds, ...). */
+    public static String inputsHash(Object... inputs) {
+        StringBuilder joined = new StringBuilder();
+        for (Object input : inputs) joined.append(input).append('\u001f');
+        return contentHash(joined.toString());
+    }
+
+    /** Write all records (temp file + move, so a crash never leaves a torn store). */
+    public synchronized void save() {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+
+            try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (Record r : records.values()) {
+                    out.write(String.join("\t", r.url, orEmpty(r.lastmod), orEmpty(r.etag),
+                            orEmpty(r.lastModified), orEmpty(r.contentHash),
+                            String.valueOf(r.passed), String.valueOf(r.checkedAt), orEmpty(r.inputsHash)));
+                    out.write('\n');
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        } catch (IOException e) {
+            System.out.println("⚠ Could not save result store " + file + ": " + e.getMessage());
+        }
+    }
+
+    /** Short SHA-256 of page content. */
+    public static String contentHash(String content) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest((content == null ? "" : content).getBytes(StandardCharsets.UTF_8));
+
+            StringBuilder hex = new StringBuilder();
+            for (int i = 0; i < 16; i++) hex.append(String.format("%02x", hash[i]));
+            return hex.toString();
+        } catch (Exception e) {
+            return Integer.toHexString(content == null ? 0 : content.hashCode());
+        }
+    }
+
+    private void load() {
+        if (!Files.exists(file)) return;
+
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] f = line.split("\t", -1);
+                if (f.length < 7) continue;
+
+                Record r = new Record(f[0]);
+                r.lastmod = emptyToNull(f[1]);
+                r.etag = emptyToNull(f[2]);
+                r.lastModified = emptyToNull(f[3]);
+                r.contentHash = emptyToNull(f[4]);
+                r.passed = Boolean.parseBoolean(f[5]);
+                try { r.checkedAt = Long.parseLong(f[6]); } catch (NumberFormatException ignored) {}
+                r.inputsHash = f.length > 7 ? emptyToNull(f[7]) : null;   // older stores: re-check once
+                records.put(r.url, r);
+            }
+        } catch (IOException e) {
+            System.out.println("⚠ Could not read result store " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static String orEmpty(String s) {
+        return s == null ? "" : s.replace('\t', ' ').replace('\n', ' ');
+    }
+
+    private static String emptyToNull(String s) {
+        return s.isEmpty() ? null : s;
+    }
+}
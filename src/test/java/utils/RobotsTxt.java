@@ -0,0 +1,264 @@
+package utils;
+
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ---------------------------------------------------------
+ * robots.txt rules per host, fetched once per run and shared
+ * by every crawl.
+ *
+ * Parsing follows RFC 9309:
+ * - the groups for our agent token (-Drobots.agent) are used,
+ *   otherwise the "*" groups
+ * - Allow / Disallow patterns support * and a trailing $;
+ *   the longest matching pattern wins, Allow on a tie
+ * - /robots.txt itself is always allowed
+ * - a 4xx (no robots.txt) allows everything
+ *
+ * Unlike the RFC, a robots.txt that cannot be fetched (5xx,
+ * timeout) also allows everything, with a warning: an outage
+ * of one file should not empty a validation run.
+ *
+ * Crawl-delay is read too (capped by -Drobots.maxCrawlDelay,
+ * seconds, default 30); CrawlEngine paces page fetches to it
+ * through HostPoliteness.awaitCrawlDelay().
+ *
+ * -Drobots.disallow=/search,/*?*sort= adds Disallow rules for
+ * every host: handy for faceted navigation and search-result
+ * spaces the site's own robots.txt does not cover.
+ * -Dcrawl.robots=false turns the whole thing off.
+ * ---------------------------------------------------------
+ */
+public class RobotsTxt {
+
+    private static final int MAX_BYTES = 500 * 1024;   // RFC 9309: parse at least the first 500 KiB
+
+    private static final RobotsTxt SHARED = new RobotsTxt(agent());
+
+    public static RobotsTxt shared() {
+        return SHARED;
+    }
+
+    /** Whether crawls honour robots.txt (default true). */
+    public static boolean enabled() {
+        return Boolean.parseBoolean(System.getProperty("crawl.robots", "true"));
+    }
+
+    /** Product token matched against User-agent lines (default: only "*" groups apply). */
+    public static String agent() {
+        return System.getProperty("robots.agent", "*").trim().toLowerCase();
+    }
+
+    public static long maxCrawlDelayMs() {
+        return (long) (Double.parseDouble(System.getProperty("robots.maxCrawlDelay", "30")) * 1000);
+    }
+
+    /** Extra Disallow patterns applied to every host. */
+    public static List<String> extraDisallow() {
+        List<String> patterns = new ArrayList<>();
+        for (String p : System.getProperty("robots.disallow", "").split(",")) {
+            if (!p.isBlank()) patterns.add(p.trim());
+        }
+        return patterns;
+    }
+
+    /** The rules that apply to us on one host. */
+    public static class Rules {
+        final List<String> allow = new ArrayList<>();
+        final List<String> disallow = new ArrayList<>();
+        public long crawlDelayMs = 0;
+        public final List<String> sitemaps = new ArrayList<>();
+
+        /** Whether a path (with query) may be crawled. */
+        public boolean allows(String pathAndQuery) {
+            if (pathAndQuery.equals("/robots.txt")) return true;
+
+            int allowLength = longestMatch(allow, pathAndQuery);
+            int disallowLength = longestMatch(disallow, pathAndQuery);
+            return disallowLength < 0 || allowLength >= disallowLength;
+        }
+    }
+
+    private final String agent;
+    private final Map<String, CompletableFuture<Rules>> hosts = new ConcurrentHashMap<>();
+
+    public RobotsTxt(String agent) {
+        this.agent = agent;
+    }
+
+    /** May this URL be crawled? Non-http(s) URLs are not robots.txt's business and are allowed. */
+    public boolean allowed(String url) {
+        URI uri = httpUri(url);
+        if (uri == null) return true;
+
+        String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        if (uri.getRawQuery() != null) path += "?" + uri.getRawQuery();
+        return rules(uri).allows(path);
+    }
+
+    /** Crawl-delay for the URL's host in ms (0 if none). */
+    public long crawlDelayMs(String url) {
+        URI uri = httpUri(url);
+        return uri == null ? 0 : rules(uri).crawlDelayMs;
+    }
+
+    /** Rules for the URL's host, fetching robots.txt on first use (null for non-http(s) URLs). */
+    public Rules rulesFor(String url) {
+        URI uri = httpUri(url);
+        return uri == null ? null : rules(uri);
+    }
+
+    private Rules rules(URI uri) {
+        String origin = uri.getScheme().toLowerCase() + "://" + uri.getRawAuthority().toLowerCase();
+        return hosts.computeIfAbsent(origin, this::fetch).join();
+    }
+
+    private CompletableFuture<Rules> fetch(String origin) {
+        String robotsUrl = origin + "/robots.txt";
+        return SharedHttpClient.get()
+                .sendAsync(SharedHttpClient.request(robotsUrl, "GET", SharedHttpClient.requestTimeoutMs()).build(),
+                        HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, error) -> {
+                    if (error != null) {
+                        System.out.println("⚠ robots.txt unreachable for " + origin + " ("
+                                + LinkResult.failed(robotsUrl, error).describe() + "), crawling without it");
+                        return withExtraRules(new Rules());
+                    }
+                    int status = response.statusCode();
+                    if (status >= 400 && status < 500) return withExtraRules(new Rules());
+                    if (status != 200) {
+                        System.out.println("⚠ robots.txt for " + origin + " returned HTTP " + status
+                                + ", crawling without it");
+                        return withExtraRules(new Rules());
+                    }
+
+                    byte[] body = response.body();
+                    String text = new String(body, 0, Math.min(body.length, MAX_BYTES), StandardCharsets.UTF_8);
+                    Rules rules = withExtraRules(parse(text, agent));
+                    System.out.println("🤖 robots.txt for " + origin + ": " + rules.disallow.size() + " disallow / "
+                            + rules.allow.size() + " allow rules"
+                            + (rules.crawlDelayMs > 0 ? ", Crawl-delay " + rules.crawlDelayMs + " ms" : ""));
+                    return rules;
+                });
+    }
+
+    private static Rules withExtraRules(Rules rules) {
+        rules.disallow.addAll(extraDisallow());
+        return rules;
+    }
+
+    // ---------------------------------------------------------
+    // Parsing
+    // ---------------------------------------------------------
+    /** Rules for an agent token from robots.txt text ("*" = the catch-all groups only). */
+    public static Rules parse(String text, String agent) {
+        Rules own = new Rules();
+        Rules wildcard = new Rules();
+        boolean ownFound = false;
+
+        Set<String> groupAgents = new HashSet<>();
+        boolean inRules = false;   // a User-agent line after rules starts a new group
+
+        for (String rawLine : text.split("\r\n|\r|\n")) {
+            String line = rawLine;
+            int comment = line.indexOf('#');
+            if (comment >= 0) line = line.substring(0, comment);
+
+            int colon = line.indexOf(':');
+            if (colon < 0) continue;
+            String key = line.substring(0, colon).trim().toLowerCase();
+            String value = line.substring(colon + 1).trim();
+
+            if (key.equals("user-agent")) {
+                if (inRules) {
+                    groupAgents.clear();
+                    inRules = false;
+                }
+                groupAgents.add(value.toLowerCase());
+                continue;
+            }
+            if (key.equals("sitemap")) {
+                own.sitemaps.add(value);   // not group-specific
+                wildcard.sitemaps.add(value);
+                continue;
+            }
+            if (!key.equals("allow") && !key.equals("disallow") && !key.equals("crawl-delay")) continue;
+
+            inRules = true;
+            boolean forUs = !agent.equals("*") && groupAgents.contains(agent);
+            if (forUs) ownFound = true;
+
+            if (forUs) addRule(own, key, value);
+            if (groupAgents.contains("*")) addRule(wildcard, key, value);
+        }
+        return ownFound ? own : wildcard;
+    }
+
+    private static void addRule(Rules rules, String key, String value) {
+        switch (key) {
+            case "allow":
+                if (!value.isEmpty()) rules.allow.add(value);
+                break;
+            case "disallow":
+                if (!value.isEmpty()) rules.disallow.add(value);   // "Disallow:" with no path allows all
+                break;
+            default:
+                try {
+                    long ms = (long) (Double.parseDouble(value) * 1000);
+                    rules.crawlDelayMs = Math.max(0, Math.min(maxCrawlDelayMs(), ms));
+                } catch (NumberFormatException ignored) {}
+                break;
+        }
+    }
+
+    // ---------------------------------------------------------
+    // Matching: * is any run of characters, a trailing $ anchors the end
+    // ---------------------------------------------------------
+    private static int longestMatch(List<String> patterns, String path) {
+        int longest = -1;
+        for (String pattern : patterns) {
+            if (pattern.length() > longest && matches(pattern, path)) longest = pattern.length();
+        }
+        return longest;
+    }
+
+    static boolean matches(String pattern, String path) {
+        boolean anchored = pattern.endsWith("$");
+        String p = anchored ? pattern.substring(0, pattern.length() - 1) : pattern;
+        return matchFrom(p, 0, path, 0, anchored);
+    }
+
+    private static boolean matchFrom(String p, int pi, String s, int si, boolean anchored) {
+        while (pi < p.length()) {
+            char c = p.charAt(pi);
+            if (c == '*') {
+                while (pi < p.length() && p.charAt(pi) == '*') pi++;
+                if (pi == p.length()) return true;
+                for (int k = si; k <= s.length(); k++) {
+                    if (matchFrom(p, pi, s, k, anchored)) return true;
+                }
+                return false;
+            }
+            if (si >= s.length() || s.charAt(si) != c) return false;
+            pi++;
+            si++;
+        }
+        return !anchored || si == s.length();
+    }
+
+    private static URI httpUri(String url) {
+        try {
+            URI uri = URI.create(url);
+            String scheme = uri.getScheme() == null ? "" : uri.getScheme().toLowerCase();
+            if (!scheme.equals("http") && !scheme.equals("https") || uri.getRawAuthority() == null) return null;
+            return uri;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
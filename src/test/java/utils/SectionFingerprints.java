@@ -0,0 +1,101 @@
+package utils;
+
+import com.aventstack.extentreports.ExtentTest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * ---------------------------------------------------------
+ * Groups the pages of a site by their <header> / <footer> so
+ * header/footer checks run once per variant, not per page.
+ *
+ * The fingerprint is a SHA-256 of the normalized header and
+ * footer text. When a later page has the same fingerprint,
+ * reuse() asks whether the sections ALONE satisfy a check
+ * (evaluated once per variant and remembered). If they do,
+ * the check is skipped and reported as reused from the first
+ * page of the variant. Otherwise the caller runs the full
+ * check, since the rest of the page differs every time.
+ *
+ * One instance per site; report() lists which pages share
+ * which variant.
+ * ---------------------------------------------------------
+ */
+public class SectionFingerprints {
+
+    /** One distinct header + footer combination and the pages that have it. */
+    public static class Variant {
+        public final String id;             // short hash shown in the report
+        public final String firstPage;
+        public final List<String> pages = Collections.synchronizedList(new ArrayList<>());
+
+        private final String sections;
+        private final Map<String, Boolean> satisfied = new ConcurrentHashMap<>();
+
+        Variant(String id, String firstPage, String sections) {
+            this.id = id;
+            this.firstPage = firstPage;
+            this.sections = sections;
+        }
+
+        /**
+         * True (and logged on the page node) if this page is not the first of
+         * the variant and header + footer alone already satisfy the check.
+         * The first page always runs its checks normally.
+         */
+        public boolean reuse(ExtentTest test, String page, String check, Predicate<String> inSections) {
+            if (firstPage.equals(page)) return false;
+            if (!satisfied.computeIfAbsent(check, k -> inSections.test(sections))) return false;
+
+            test.pass("♻ " + check + " found in header/footer variant #" + id
+                    + " (same as " + firstPage + ") — check skipped.");
+            return true;
+        }
+    }
+
+    private final Map<String, Variant> variants = new LinkedHashMap<>();
+
+    /** Fingerprint of already-normalized header and footer text. */
+    public static String fingerprint(String header, String footer) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha.digest((header + "\n<footer>\n" + footer).getBytes(StandardCharsets.UTF_8));
+
+            StringBuilder hex = new StringBuilder();
+            for (int i = 0; i < 6; i++) hex.append(String.format("%02x", hash[i]));
+            return hex.toString();
+        } catch (Exception e) {
+            return Integer.toHexString((header + "\n" + footer).hashCode());
+        }
+    }
+
+    /** The variant for this page's header/footer (created on first sight). */
+    public synchronized Variant register(String pageUrl, String header, String footer) {
+        String h = header == null ? "" : header;
+        String f = footer == null ? "" : footer;
+
+        Variant v = variants.computeIfAbsent(fingerprint(h, f), id -> new Variant(id, pageUrl, h + " " + f));
+        v.pages.add(pageUrl);
+        return v;
+    }
+
+    public synchronized int size() {
+        return variants.size();
+    }
+
+    /** One report node listing each variant and the pages that share it. */
+    public synchronized void report(ExtentTest parent) {
+        if (variants.isEmpty()) return;
+
+        ExtentTest node = parent.createNode("🧩 Header/Footer variants: " + variants.size());
+        for (Variant v : variants.values()) {
+            synchronized (v.pages) {
+                node.info("#" + v.id + " — " + v.pages.size() + " page(s): " + String.join(", ", v.pages));
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package utils;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+
+/**
+ * ---------------------------------------------------------
+ * One pooled java.net.http.HttpClient for the whole suite.
+ *
+ * - keep-alive connections are reused across all link checks
+ * - HTTP/2 where the server supports it (falls back to 1.1)
+ * - redirects followed (except https → http)
+ *
+ * Timeouts can be tuned with -Dhttp.connectTimeoutMs and
+ * -Dhttp.requestTimeoutMs.
+ * ---------------------------------------------------------
+ */
+public class SharedHttpClient {
+
+    public static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64)";
+
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(Duration.ofMillis(connectTimeoutMs()))
+            .build();
+
+    public static HttpClient get() {
+        return CLIENT;
+    }
+
+    public static int connectTimeoutMs() {
+        return Integer.getInteger("http.connectTimeoutMs", 10000);
+    }
+
+    public static int requestTimeoutMs() {
+        return Integer.getInteger("http.requestTimeoutMs", 10000);
+    }
+
+    /** Request builder with the suite's User-Agent and a per-request timeout. */
+    public static HttpRequest.Builder request(String url, String method, int timeoutMs) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .timeout(Duration.ofMillis(timeoutMs))
+                .header("User-Agent", USER_AGENT);
+    }
+}
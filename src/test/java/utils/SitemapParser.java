@@ -1,185 +1,471 @@
-package utils;
-
-import java.io.*;
-import java.net.*;
-import java.util.*;
-import java.util.regex.*;
-import java.util.zip.GZIPInputStream;
-
-public class SitemapParser {
-
-    /**
-     * ---------------------------------------------------------
-     * Read a sitemap URL and extract URLs from:
-     * - XML <urlset>
-     * - Nested <sitemapindex> (recursive)
-     * - .xml.gz files
-     * - HTML sitemap fallback
-     * ---------------------------------------------------------
-     */
-    public static List<String> extractUrls(String sitemapUrl) {
-
-        Set<String> finalUrls = new LinkedHashSet<>();
-
-        try {
-            System.out.println("🔍 Fetching sitemap: " + sitemapUrl);
-
-            String content = fetchContent(sitemapUrl);
-            if (content == null || content.trim().isEmpty()) {
-                System.out.println("⚠ Empty or unreadable sitemap: " + sitemapUrl);
-                return new ArrayList<>();
-            }
-
-            content = content.trim();
-
-            // ---------------------------------------------------------
-            // CASE 1 — SITEMAP INDEX (nested sitemaps)
-            // ---------------------------------------------------------
-            if (content.contains("<sitemapindex")) {
-
-                List<String> nestedSitemaps = parseLocTags(content);
-
-                System.out.println("📑 Found " + nestedSitemaps.size() + " nested sitemaps");
-
-                for (String nestedUrl : nestedSitemaps) {
-                    finalUrls.addAll(extractUrls(nestedUrl)); // recursive
-                }
-
-                return new ArrayList<>(finalUrls);
-            }
-
-            // ---------------------------------------------------------
-            // CASE 2 — NORMAL XML SITEMAP <urlset>
-            // ---------------------------------------------------------
-            if (content.contains("<urlset")) {
-
-                finalUrls.addAll(parseLocTags(content));
-                return new ArrayList<>(finalUrls);
-            }
-
-            // ---------------------------------------------------------
-            // CASE 3 — HTML Sitemap (fallback)
-            // ---------------------------------------------------------
-            finalUrls.addAll(parseHtmlLinks(content));
-
-        } catch (Exception e) {
-            System.out.println("❌ Error while parsing sitemap: " + e.getMessage());
-        }
-
-        return new ArrayList<>(finalUrls);
-    }
-
-
-
-    /**
-     * ---------------------------------------------------------
-     * Fetch sitemap content — supports:
-     * - Normal XML
-     * - Compressed XML (.xml.gz)
-     * ---------------------------------------------------------
-     */
-    private static String fetchContent(String sitemapUrl) {
-        try {
-            URI uri = URI.create(sitemapUrl);  // Modern alternative to new URL()
-            URL url = uri.toURL();
-
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-
-            conn.setRequestMethod("GET");
-            conn.setRequestProperty("User-Agent", "Mozilla/5.0");
-            conn.setConnectTimeout(15000);
-            conn.setReadTimeout(15000);
-
-            int status = conn.getResponseCode();
-
-            if (status != HttpURLConnection.HTTP_OK) {
-                System.out.println("⚠ Unable to read sitemap: " + sitemapUrl + " | Status: " + status);
-                return null;
-            }
-
-            InputStream inputStream = 
-                sitemapUrl.endsWith(".gz") ? new GZIPInputStream(conn.getInputStream()) 
-                                           : conn.getInputStream();
-
-            BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
-            StringBuilder sb = new StringBuilder();
-
-            String line;
-            while ((line = reader.readLine()) != null)
-                sb.append(line).append("\n");
-
-            reader.close();
-            return sb.toString();
-
-        } catch (Exception e) {
-            System.out.println("❌ Connection Error: " + e.getMessage());
-            return null;
-        }
-    }
-
-
-
-    /**
-     * ---------------------------------------------------------
-     * Extract <loc> tags from any XML sitemap
-     * ---------------------------------------------------------
-     */
-    private static List<String> parseLocTags(String content) {
-        List<String> urls = new ArrayList<>();
-
-        Pattern pattern = Pattern.compile("<loc>(.*?)</loc>");
-        Matcher matcher = pattern.matcher(content);
-
-        while (matcher.find()) {
-            String url = matcher.group(1).trim();
-            if (url.startsWith("http")) {
-                urls.add(url);
-            }
-        }
-
-        return urls;
-    }
-
-
-
-    /**
-     * ---------------------------------------------------------
-     * Extract links from HTML sitemap <a href="">
-     * ---------------------------------------------------------
-     */
-    private static List<String> parseHtmlLinks(String content) {
-        List<String> urls = new ArrayList<>();
-
-        Pattern pattern = Pattern.compile("href=[\"'](.*?)[\"']");
-        Matcher matcher = pattern.matcher(content);
-
-        while (matcher.find()) {
-            String link = matcher.group(1).trim();
-            if (link.startsWith("http")) {
-                urls.add(link);
-            }
-        }
-
-        return urls;
-    }
-
-
-
-    /**
-     * ---------------------------------------------------------
-     * Public method for unit test support
-     * ---------------------------------------------------------
-     */
-    public static List<String> parseSitemapContent(String content) {
-
-        if (content == null || content.trim().isEmpty())
-            return new ArrayList<>();
-
-        content = content.trim();
-
-        if (content.contains("<urlset") || content.contains("<sitemapindex"))
-            return parseLocTags(content);
-
-        return parseHtmlLinks(content);
-    }
-}
+package utils;
+
+import java.io.*;
+import java.net.*;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.regex.*;
+import java.util.zip.GZIPInputStream;
+import javax.xml.stream.*;
+
+public class SitemapParser {
+
+    /** One <url> (or <sitemap>) entry of an XML sitemap. */
+    public static class SitemapEntry {
+        public String loc;
+        public String lastmod;
+        public String changefreq;
+        public String priority;
+        public boolean nestedSitemap;   // true for <sitemap> entries of a <sitemapindex>
+    }
+
+    private static final XMLInputFactory XML_FACTORY = XMLInputFactory.newInstance();
+
+    static {
+        XML_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        XML_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    private static final int SNIFF_BYTES = 8192;
+
+    private static final Pattern LOC_TAG = Pattern.compile("<loc>(.*?)</loc>", Pattern.DOTALL);
+
+    private static final Set<String> ENTRY_FIELDS = Set.of("loc", "lastmod", "changefreq", "priority");
+
+
+
+    /** One fetched sitemap document and the nested sitemaps it points to. */
+    private static class SitemapDoc {
+        final String url;
+        final List<SitemapEntry> pageEntries = new ArrayList<>();
+        final List<SitemapDoc> children = new ArrayList<>();
+
+        SitemapDoc(String url) {
+            this.url = url;
+        }
+    }
+
+    /** Child sitemaps fetched at the same time (-Dsitemap.parallelism). */
+    public static int parallelism() {
+        return Integer.getInteger("sitemap.parallelism", 6);
+    }
+
+    /** Deepest <sitemapindex> nesting that is followed (-Dsitemap.maxDepth). */
+    public static int maxDepth() {
+        return Integer.getInteger("sitemap.maxDepth", 5);
+    }
+
+
+
+    /**
+     * ---------------------------------------------------------
+     * Read a sitemap URL and extract URLs from:
+     * - XML <urlset>
+     * - Nested <sitemapindex> (children fetched in parallel)
+     * - .xml.gz files
+     * - HTML sitemap fallback
+     *
+     * The tree is fetched level by level, so the result keeps the
+     * same order as a sequential depth-first walk. Sitemaps that
+     * were already visited are skipped (cycle guard).
+     * ---------------------------------------------------------
+     */
+    public static List<String> extractUrls(String sitemapUrl) {
+        List<String> urls = new ArrayList<>();
+        for (SitemapEntry entry : extractEntries(sitemapUrl)) urls.add(entry.loc);
+        return urls;
+    }
+
+    /** Same as extractUrls, but keeps <lastmod> / <changefreq> / <priority> of every page. */
+    public static List<SitemapEntry> extractEntries(String sitemapUrl) {
+
+        Map<String, SitemapEntry> finalEntries = new LinkedHashMap<>();
+        Set<String> visitedSitemaps = ConcurrentHashMap.newKeySet();
+
+        SitemapDoc root = new SitemapDoc(sitemapUrl);
+        visitedSitemaps.add(sitemapUrl);
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, parallelism()), r -> {
+            Thread t = new Thread(r, "sitemap-fetch");
+            t.setDaemon(true);
+            return t;
+        });
+
+        try {
+            List<SitemapDoc> level = List.of(root);
+
+            for (int depth = 0; !level.isEmpty(); depth++) {
+
+                List<Callable<Void>> fetches = new ArrayList<>();
+                final boolean followNested = depth < maxDepth();
+
+                for (SitemapDoc doc : level) {
+                    fetches.add(() -> {
+                        fetchDoc(doc, followNested, visitedSitemaps);
+                        return null;
+                    });
+                }
+                pool.invokeAll(fetches);
+
+                List<SitemapDoc> next = new ArrayList<>();
+                for (SitemapDoc doc : level) next.addAll(doc.children);
+                level = next;
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        flatten(root, finalEntries);
+        return new ArrayList<>(finalEntries.values());
+    }
+
+    private static void fetchDoc(SitemapDoc doc, boolean followNested, Set<String> visitedSitemaps) {
+
+        System.out.println("🔍 Fetching sitemap: " + doc.url);
+
+        List<String> nested = new ArrayList<>();
+
+        streamEntries(doc.url, entry -> {
+            if (entry.nestedSitemap) nested.add(entry.loc);
+            else doc.pageEntries.add(entry);
+        });
+
+        if (nested.isEmpty()) return;
+
+        System.out.println("📑 Found " + nested.size() + " nested sitemaps");
+
+        if (!followNested) {
+            System.out.println("⚠ Max sitemap depth reached, not following: " + doc.url);
+            return;
+        }
+
+        for (String nestedUrl : nested) {
+            if (visitedSitemaps.add(nestedUrl)) {
+                doc.children.add(new SitemapDoc(nestedUrl));
+            }
+        }
+    }
+
+    private static void flatten(SitemapDoc doc, Map<String, SitemapEntry> out) {
+        for (SitemapEntry entry : doc.pageEntries) out.putIfAbsent(entry.loc, entry);
+        for (SitemapDoc child : doc.children) flatten(child, out);
+    }
+
+
+
+    /**
+     * ---------------------------------------------------------
+     * Streaming mode — page entries are handed to the callback
+     * as soon as they are parsed, so memory stays flat no matter
+     * how large the sitemap is. Nested <sitemapindex> files are
+     * followed sequentially (to keep callback order) with the
+     * same cycle guard and depth limit as extractUrls.
+     * ---------------------------------------------------------
+     */
+    public static void streamUrls(String sitemapUrl, Consumer<SitemapEntry> callback) {
+        Set<String> visitedSitemaps = new HashSet<>();
+        visitedSitemaps.add(sitemapUrl);
+        streamUrls(sitemapUrl, callback, 0, visitedSitemaps);
+    }
+
+    private static void streamUrls(String sitemapUrl, Consumer<SitemapEntry> callback,
+                                   int depth, Set<String> visitedSitemaps) {
+
+        System.out.println("🔍 Fetching sitemap: " + sitemapUrl);
+
+        List<String> nestedSitemaps = new ArrayList<>();
+
+        boolean parsed = streamEntries(sitemapUrl, entry -> {
+            if (entry.nestedSitemap) nestedSitemaps.add(entry.loc);
+            else callback.accept(entry);
+        });
+
+        if (!parsed || nestedSitemaps.isEmpty()) return;
+
+        System.out.println("📑 Found " + nestedSitemaps.size() + " nested sitemaps");
+
+        if (depth >= maxDepth()) {
+            System.out.println("⚠ Max sitemap depth reached, not following: " + sitemapUrl);
+            return;
+        }
+
+        for (String nestedUrl : nestedSitemaps) {
+            if (visitedSitemaps.add(nestedUrl)) {
+                streamUrls(nestedUrl, callback, depth + 1, visitedSitemaps); // recursive
+            }
+        }
+    }
+
+
+
+    /**
+     * ---------------------------------------------------------
+     * Parse ONE sitemap document without following nested ones.
+     * <sitemap> entries are reported with nestedSitemap = true.
+     * Returns false if the sitemap could not be read.
+     *
+     * XML that is not well-formed (an unescaped & in a <loc> is
+     * common with CMS plugins) stops the StAX pass; the document
+     * is then re-read with the lenient <loc> scan, continuing
+     * after the entries already reported.
+     * ---------------------------------------------------------
+     */
+    public static boolean streamEntries(String sitemapUrl, Consumer<SitemapEntry> callback) {
+
+        try (InputStream in = openStream(sitemapUrl)) {
+
+            if (in == null) return false;
+
+            // Peek at the head of the document to choose XML vs HTML
+            in.mark(SNIFF_BYTES);
+            byte[] head = in.readNBytes(SNIFF_BYTES);
+            in.reset();
+
+            String start = new String(head, StandardCharsets.UTF_8);
+
+            if (start.contains("<urlset") || start.contains("<sitemapindex")) {
+                int[] reported = {0};
+                try {
+                    parseXmlEntries(in, entry -> {
+                        reported[0]++;
+                        callback.accept(entry);
+                    });
+                } catch (XMLStreamException e) {
+                    System.out.println("⚠ Sitemap is not well-formed XML (" + e.getMessage().replace('\n', ' ')
+                            + "), re-reading with lenient <loc> scan: " + sitemapUrl);
+                    return scanLocTags(sitemapUrl, start.contains("<sitemapindex"), reported[0], callback);
+                }
+                return true;
+            }
+
+            // HTML sitemap (fallback) — small enough to read whole
+            String content = new String(in.readAllBytes(), StandardCharsets.UTF_8).trim();
+            if (content.isEmpty()) {
+                System.out.println("⚠ Empty or unreadable sitemap: " + sitemapUrl);
+                return false;
+            }
+
+            for (String link : parseHtmlLinks(content)) {
+                SitemapEntry entry = new SitemapEntry();
+                entry.loc = link;
+                callback.accept(entry);
+            }
+            return true;
+
+        } catch (Exception e) {
+            System.out.println("❌ Error while parsing sitemap: " + e.getMessage());
+            return false;
+        }
+    }
+
+
+
+    /**
+     * ---------------------------------------------------------
+     * StAX pass over <url>/<sitemap> elements
+     * ---------------------------------------------------------
+     */
+    private static void parseXmlEntries(InputStream in, Consumer<SitemapEntry> callback)
+            throws XMLStreamException {
+
+        XMLStreamReader reader = XML_FACTORY.createXMLStreamReader(in);
+
+        try {
+            SitemapEntry current = null;
+            int depth = 0, entryDepth = -1;
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    depth++;
+
+                    if (current == null && (name.equals("url") || name.equals("sitemap"))) {
+                        current = new SitemapEntry();
+                        current.nestedSitemap = name.equals("sitemap");
+                        entryDepth = depth;
+                    } else if (current != null && depth == entryDepth + 1) {
+                        // direct children only — skips <image:loc>, <video:loc>, ...
+                        if (ENTRY_FIELDS.contains(name)) {
+                            String text = reader.getElementText().trim();
+                            depth--;   // getElementText() consumed the END_ELEMENT
+
+                            switch (name) {
+                                case "loc":        current.loc = text; break;
+                                case "lastmod":    current.lastmod = text; break;
+                                case "changefreq": current.changefreq = text; break;
+                                default:           current.priority = text; break;
+                            }
+                        }
+                    }
+
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+
+                    if (current != null && depth == entryDepth) {
+                        if (current.loc != null && current.loc.startsWith("http")) {
+                            callback.accept(current);
+                        }
+                        current = null;
+                    }
+                    depth--;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+
+
+    /**
+     * ---------------------------------------------------------
+     * Open the sitemap body as a stream — supports:
+     * - Normal XML
+     * - Compressed XML (.xml.gz, or gzip magic bytes)
+     * Returns null if the server does not answer 200.
+     * With the response cache on, the body is read from
+     * ResponseCache (downloaded once per run for all validators);
+     * with -Dhttp.cache=off it is streamed from the network.
+     * ---------------------------------------------------------
+     */
+    private static InputStream openStream(String sitemapUrl) throws IOException, InterruptedException {
+
+        int status;
+        InputStream body;
+
+        if (ResponseCache.shared().enabled()) {
+            ResponseCache.Entry entry = ResponseCache.shared().fetch(sitemapUrl, 15000);
+            status = entry.status;
+            body = entry.openBody();
+        } else {
+            HttpResponse<InputStream> response = SharedHttpClient.get().send(
+                    SharedHttpClient.request(sitemapUrl, "GET", 15000).build(),
+                    HttpResponse.BodyHandlers.ofInputStream());
+            status = response.statusCode();
+            body = response.body();
+        }
+
+        if (status != HttpURLConnection.HTTP_OK) {
+            body.close();
+            System.out.println("⚠ Unable to read sitemap: " + sitemapUrl + " | Status: " + status);
+            return null;
+        }
+
+        BufferedInputStream raw = new BufferedInputStream(body);
+
+        raw.mark(2);
+        boolean gzip = raw.read() == 0x1f && raw.read() == 0x8b;
+        raw.reset();
+
+        return gzip ? new BufferedInputStream(new GZIPInputStream(raw)) : raw;
+    }
+
+
+
+    /**
+     * ---------------------------------------------------------
+     * Lenient fallback for broken XML: stream <loc> tags with a
+     * regex, skipping the first `skip` (already reported).
+     * Only <loc> survives; lastmod / priority are lost.
+     * ---------------------------------------------------------
+     */
+    private static boolean scanLocTags(String sitemapUrl, boolean index, int skip,
+                                       Consumer<SitemapEntry> callback) throws IOException, InterruptedException {
+
+        try (InputStream in = openStream(sitemapUrl)) {
+            if (in == null) return false;
+
+            Scanner scanner = new Scanner(in, StandardCharsets.UTF_8);
+            int seen = 0;
+            while (scanner.findWithinHorizon(LOC_TAG, 0) != null) {
+                String url = unescapeXml(scanner.match().group(1).trim());
+                if (!url.startsWith("http") || seen++ < skip) continue;
+
+                SitemapEntry entry = new SitemapEntry();
+                entry.loc = url;
+                entry.nestedSitemap = index;
+                callback.accept(entry);
+            }
+            return true;
+        }
+    }
+
+    private static String unescapeXml(String s) {
+        if (s.indexOf('&') < 0) return s;
+        return s.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"")
+                .replace("&apos;", "'").replace("&amp;", "&");
+    }
+
+
+
+    /**
+     * ---------------------------------------------------------
+     * Extract <loc> tags from any XML sitemap
+     * ---------------------------------------------------------
+     */
+    private static List<String> parseLocTags(String content) {
+        List<String> urls = new ArrayList<>();
+
+        Pattern pattern = Pattern.compile("<loc>(.*?)</loc>");
+        Matcher matcher = pattern.matcher(content);
+
+        while (matcher.find()) {
+            String url = matcher.group(1).trim();
+            if (url.startsWith("http")) {
+                urls.add(url);
+            }
+        }
+
+        return urls;
+    }
+
+
+
+    /**
+     * ---------------------------------------------------------
+     * Extract links from HTML sitemap <a href="">
+     * ---------------------------------------------------------
+     */
+    private static List<String> parseHtmlLinks(String content) {
+        List<String> urls = new ArrayList<>();
+
+        Pattern pattern = Pattern.compile("href=[\"'](.*?)[\"']");
+        Matcher matcher = pattern.matcher(content);
+
+        while (matcher.find()) {
+            String link = matcher.group(1).trim();
+            if (link.startsWith("http")) {
+                urls.add(link);
+            }
+        }
+
+        return urls;
+    }
+
+
+
+    /**
+     * ---------------------------------------------------------
+     * Public method for unit test support
+     * ---------------------------------------------------------
+     */
+    public static List<String> parseSitemapContent(String content) {
+
+        if (content == null || content.trim().isEmpty())
+            return new ArrayList<>();
+
+        content = content.trim();
+
+        if (content.contains("<urlset") || content.contains("<sitemapindex"))
+            return parseLocTags(content);
+
+        return parseHtmlLinks(content);
+    }
+}
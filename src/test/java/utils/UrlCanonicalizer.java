@@ -0,0 +1,191 @@
+package utils;
+
+import java.net.URI;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * ---------------------------------------------------------
+ * One spelling per page, so crawlers stop fetching the same
+ * page under different URLs.
+ *
+ * canonical(url) is the URL to fetch:
+ * - no #fragment
+ * - lower-case scheme and host, no trailing dot, no :80 / :443
+ * - "." / ".." path segments resolved, empty path → "/"
+ * - percent-encoding normalized: unreserved characters
+ *   decoded (%7E → ~), remaining escapes upper-case (%2f → %2F)
+ * - tracking parameters removed (utm_*, gclid, fbclid, ...
+ *   plus -Durl.stripParams=a,b), the rest sorted by name
+ * - trailing slash per -Durl.trailingSlash:
+ *     ignore (default)  left as found
+ *     strip             /page/ → /page
+ *     add               /page  → /page/ (not for /file.ext)
+ *
+ * key(url) is what "same page" means for de-duplication:
+ * the canonical URL with any trailing slash dropped, so
+ * /page and /page/ are one page even when left as found.
+ *
+ * under(base) tests canonical URLs against a base URL written
+ * any way (Example.com:443/, trailing slash or not), for crawl
+ * filters fed by CrawlEngine.
+ *
+ * Anything that is not http(s) (mailto:, tel:, javascript:)
+ * or cannot be parsed is only trimmed.
+ * ---------------------------------------------------------
+ */
+public class UrlCanonicalizer {
+
+    private static final Set<String> TRACKING_PARAMS = new HashSet<>(Arrays.asList(
+            "gclid", "gclsrc", "dclid", "gbraid", "wbraid", "fbclid", "msclkid", "yclid", "igshid",
+            "mc_cid", "mc_eid", "_ga", "_gl", "_hsenc", "_hsmi", "mkt_tok", "hsctatracking"));
+
+    private static final String UNRESERVED_PUNCTUATION = "-._~";
+
+    /** ignore, strip or add. */
+    public static String trailingSlash() {
+        return System.getProperty("url.trailingSlash", "ignore").trim().toLowerCase();
+    }
+
+    /** Extra query parameters to drop (-Durl.stripParams=sessionid,ref). */
+    public static Set<String> extraStripParams() {
+        Set<String> params = new HashSet<>();
+        for (String p : System.getProperty("url.stripParams", "").split(",")) {
+            if (!p.isBlank()) params.add(p.trim().toLowerCase());
+        }
+        return params;
+    }
+
+    private UrlCanonicalizer() {
+    }
+
+    /** The normalized, fetchable form of a URL (null stays null). */
+    public static String canonical(String url) {
+        return canonical(url, trailingSlash());
+    }
+
+    /** De-duplication key: canonical form, trailing slash ignored. */
+    public static String key(String url) {
+        String canonical = canonical(url, "strip");
+        return canonical == null ? "" : canonical;
+    }
+
+    /**
+     * Matches canonical URLs at or below the base URL's page, however the base
+     * is spelled. The base is canonicalized once; each test is two string compares.
+     */
+    public static Predicate<String> under(String baseUrl) {
+        String base = key(baseUrl);
+        String prefix = base.endsWith("/") ? base : base + "/";
+        return canonical -> canonical != null && (canonical.startsWith(prefix) || canonical.equals(base));
+    }
+
+    /** Same page? */
+    public static boolean same(String a, String b) {
+        return key(a).equals(key(b));
+    }
+
+    // ---------------------------------------------------------
+    // Normalization
+    // ---------------------------------------------------------
+    private static String canonical(String url, String slashPolicy) {
+        if (url == null) return null;
+
+        String u = url.trim();
+        int hash = u.indexOf('#');
+        if (hash >= 0) u = u.substring(0, hash);
+
+        URI uri;
+        try {
+            uri = URI.create(u.replace(" ", "%20"));
+        } catch (IllegalArgumentException e) {
+            return u;
+        }
+
+        String scheme = uri.getScheme() == null ? null : uri.getScheme().toLowerCase();
+        if (!"http".equals(scheme) && !"https".equals(scheme)) return u;
+        if (uri.getHost() == null) return u;
+
+        String host = uri.getHost().toLowerCase();
+        if (host.endsWith(".")) host = host.substring(0, host.length() - 1);
+
+        int port = uri.getPort();
+        if ((scheme.equals("http") && port == 80) || (scheme.equals("https") && port == 443)) port = -1;
+
+        StringBuilder out = new StringBuilder(u.length());
+        out.append(scheme).append("://");
+        if (uri.getRawUserInfo() != null) out.append(uri.getRawUserInfo()).append('@');
+        out.append(host);
+        if (port != -1) out.append(':').append(port);
+        out.append(path(uri, slashPolicy));
+
+        String query = query(uri.getRawQuery());
+        if (!query.isEmpty()) out.append('?').append(query);
+
+        return out.toString();
+    }
+
+    private static String path(URI uri, String slashPolicy) {
+        String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        path = normalizeEscapes(URI.create("http://h" + path).normalize().getRawPath());
+        while (path.startsWith("/../")) path = path.substring(3);   // ".." above the root
+        if (path.isEmpty() || path.equals("/..")) path = "/";
+
+        switch (slashPolicy) {
+            case "strip":
+                while (path.length() > 1 && path.endsWith("/")) path = path.substring(0, path.length() - 1);
+                break;
+            case "add":
+                String last = path.substring(path.lastIndexOf('/') + 1);
+                if (!path.endsWith("/") && !last.contains(".")) path = path + "/";
+                break;
+            default:
+                break;
+        }
+        return path;
+    }
+
+    private static String query(String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty()) return "";
+
+        Set<String> extra = extraStripParams();
+        List<String> kept = new ArrayList<>();
+        for (String param : rawQuery.split("&")) {
+            if (param.isEmpty()) continue;
+
+            String name = param.split("=", 2)[0].toLowerCase();
+            if (name.startsWith("utm_") || TRACKING_PARAMS.contains(name) || extra.contains(name)) continue;
+            kept.add(normalizeEscapes(param));
+        }
+
+        // Sort by name only: repeated parameters (a=1&a=2) keep their order
+        kept.sort(Comparator.comparing(p -> p.split("=", 2)[0]));
+        return String.join("&", kept);
+    }
+
+    // %7e → ~ (unreserved, decode); %2f → %2F (reserved, keep but upper-case)
+    private static String normalizeEscapes(String s) {
+        if (s.indexOf('%') < 0) return s;
+
+        StringBuilder out = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '%' && i + 2 < s.length() && isHex(s.charAt(i + 1)) && isHex(s.charAt(i + 2))) {
+                char decoded = (char) Integer.parseInt(s.substring(i + 1, i + 3), 16);
+                if ((decoded < 128 && Character.isLetterOrDigit(decoded)) || UNRESERVED_PUNCTUATION.indexOf(decoded) >= 0) {
+                    out.append(decoded);
+                } else {
+                    out.append('%').append(Character.toUpperCase(s.charAt(i + 1))).append(Character.toUpperCase(s.charAt(i + 2)));
+                }
+                i += 2;
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    private static boolean isHex(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+}
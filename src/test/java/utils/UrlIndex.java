@@ -0,0 +1,270 @@
+package utils;
+
+import java.util.function.IntPredicate;
+
+/**
+ * ---------------------------------------------------------
+ * Compact set of URLs for very large crawls, with one int
+ * (the check's status) stored per URL.
+ *
+ * A URL is kept as a 64-bit hash of its page key
+ * (UrlCanonicalizer.key) in an open-addressing table of
+ * primitive longs; statuses sit in a parallel int[]. That is
+ * 12 bytes per slot (the table stays at most half full)
+ * instead of the ~150+ bytes a String in a HashSet costs.
+ *
+ * The by-URL methods canonicalize first, which allocates; hot
+ * paths canonicalize a URL once (UrlCanonicalizer.canonical)
+ * and use the by-canonical-URL methods, which derive the page
+ * key in place (path trailing slashes skipped while hashing)
+ * and allocate nothing.
+ *
+ * Two different URLs sharing a 64-bit hash would be taken as
+ * the same page; at 300k URLs the odds are about 1 in 400
+ * million.
+ *
+ * withBloomFilter() puts a bit array in front of the table so
+ * the common "never seen" answer is settled without touching
+ * the (much larger) table.
+ * ---------------------------------------------------------
+ */
+public class UrlIndex {
+
+    public static final int NO_STATUS = Integer.MIN_VALUE;
+
+    private static final long EMPTY = 0L;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final int BLOOM_HASHES = 4;
+
+    private long[] hashes;
+    private int[] statuses;
+    private int size = 0;
+    private int mask;
+
+    private long[] bloom;          // null unless withBloomFilter()
+    private long bloomBits;
+
+    public UrlIndex() {
+        this(1024);
+    }
+
+    public UrlIndex(int expectedUrls) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedUrls * 2 - 1)) << 1;
+        hashes = new long[capacity];
+        statuses = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    /** Add a Bloom filter sized for this many URLs (~1% false positives before the table is consulted). */
+    public synchronized UrlIndex withBloomFilter(int expectedUrls) {
+        bloomBits = Math.max(64, (long) Math.ceil(expectedUrls * 9.6));   // 9.6 bits per URL ≈ 1%
+        bloom = new long[(int) ((bloomBits + 63) / 64)];
+        for (int slot = 0; slot < hashes.length; slot++) {
+            if (hashes[slot] != EMPTY) bloomAdd(hashes[slot]);
+        }
+        return this;
+    }
+
+    // ---------------------------------------------------------
+    // By URL (page key computed here)
+    // ---------------------------------------------------------
+    /** Add a URL. Returns false if the same page is already in the index. */
+    public boolean add(String url) {
+        return addKey(UrlCanonicalizer.key(url));
+    }
+
+    public boolean contains(String url) {
+        return containsKey(UrlCanonicalizer.key(url));
+    }
+
+    /** Add the URL if needed and store its status. */
+    public void put(String url, int status) {
+        putKey(UrlCanonicalizer.key(url), status);
+    }
+
+    /** Status stored for the URL, NO_STATUS if none (or not in the index). */
+    public int status(String url) {
+        return statusOfKey(UrlCanonicalizer.key(url));
+    }
+
+    // ---------------------------------------------------------
+    // By canonical URL (UrlCanonicalizer.canonical: no allocation)
+    // ---------------------------------------------------------
+    public boolean addCanonical(String canonical) {
+        return addHash(hashCanonical(canonical));
+    }
+
+    public boolean containsCanonical(String canonical) {
+        return containsHash(hashCanonical(canonical));
+    }
+
+    public void putCanonical(String canonical, int status) {
+        putHash(hashCanonical(canonical), status);
+    }
+
+    public int statusOfCanonical(String canonical) {
+        return statusOfHash(hashCanonical(canonical));
+    }
+
+    // ---------------------------------------------------------
+    // By page key (UrlCanonicalizer.key: no allocation)
+    // ---------------------------------------------------------
+    public boolean addKey(CharSequence key) {
+        return addHash(hash(key, 0, 0));
+    }
+
+    public boolean containsKey(CharSequence key) {
+        return containsHash(hash(key, 0, 0));
+    }
+
+    public void putKey(CharSequence key, int status) {
+        putHash(hash(key, 0, 0), status);
+    }
+
+    public int statusOfKey(CharSequence key) {
+        return statusOfHash(hash(key, 0, 0));
+    }
+
+    private synchronized boolean addHash(long h) {
+        boolean mayExist = bloom == null || bloomMightContain(h);
+        if (mayExist && slotOf(h) >= 0) return false;
+
+        insert(h, NO_STATUS);
+        return true;
+    }
+
+    private synchronized boolean containsHash(long h) {
+        if (bloom != null && !bloomMightContain(h)) return false;
+        return slotOf(h) >= 0;
+    }
+
+    private synchronized void putHash(long h, int status) {
+        int slot = slotOf(h);
+        if (slot >= 0) statuses[slot] = status;
+        else insert(h, status);
+    }
+
+    private synchronized int statusOfHash(long h) {
+        if (bloom != null && !bloomMightContain(h)) return NO_STATUS;
+        int slot = slotOf(h);
+        return slot >= 0 ? statuses[slot] : NO_STATUS;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /** Number of URLs whose stored status matches (URLs without a status are skipped). */
+    public synchronized int count(IntPredicate status) {
+        int n = 0;
+        for (int slot = 0; slot < hashes.length; slot++) {
+            if (hashes[slot] != EMPTY && statuses[slot] != NO_STATUS && status.test(statuses[slot])) n++;
+        }
+        return n;
+    }
+
+    /** Approximate heap used by the index, for the report. */
+    public synchronized long bytes() {
+        return hashes.length * 12L + (bloom == null ? 0 : bloom.length * 8L);
+    }
+
+    // ---------------------------------------------------------
+    // Open addressing (linear probing, load factor ≤ 0.5)
+    // ---------------------------------------------------------
+    private int slotOf(long h) {
+        for (int slot = (int) h & mask; ; slot = (slot + 1) & mask) {
+            if (hashes[slot] == h) return slot;
+            if (hashes[slot] == EMPTY) return -1;
+        }
+    }
+
+    private void insert(long h, int status) {
+        if ((size + 1) * 2 > hashes.length) grow();
+
+        int slot = (int) h & mask;
+        while (hashes[slot] != EMPTY) slot = (slot + 1) & mask;
+
+        hashes[slot] = h;
+        statuses[slot] = status;
+        size++;
+        if (bloom != null) bloomAdd(h);
+    }
+
+    private void grow() {
+        long[] oldHashes = hashes;
+        int[] oldStatuses = statuses;
+
+        hashes = new long[oldHashes.length * 2];
+        statuses = new int[oldHashes.length * 2];
+        mask = hashes.length - 1;
+
+        for (int i = 0; i < oldHashes.length; i++) {
+            if (oldHashes[i] == EMPTY) continue;
+            int slot = (int) oldHashes[i] & mask;
+            while (hashes[slot] != EMPTY) slot = (slot + 1) & mask;
+            hashes[slot] = oldHashes[i];
+            statuses[slot] = oldStatuses[i];
+        }
+    }
+
+    // ---------------------------------------------------------
+    // Bloom filter: k bit positions derived from the one 64-bit hash
+    // ---------------------------------------------------------
+    private void bloomAdd(long h) {
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            long bit = bloomBit(h, i);
+            bloom[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    private boolean bloomMightContain(long h) {
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            long bit = bloomBit(h, i);
+            if ((bloom[(int) (bit >>> 6)] & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    private long bloomBit(long h, int i) {
+        long combined = (h >>> 32) + i * (h & 0xffffffffL);   // Kirsch–Mitzenmacher double hashing
+        return Math.floorMod(combined, bloomBits);
+    }
+
+    /**
+     * Hash of the page key of a canonical URL without building it: the key
+     * is the canonical URL minus trailing slashes on the path (not on "/").
+     */
+    static long hashCanonical(String canonical) {
+        if (!canonical.startsWith("http://") && !canonical.startsWith("https://")) return hash(canonical, 0, 0);
+
+        int pathStart = canonical.indexOf('/', canonical.indexOf("://") + 3);
+        if (pathStart < 0) return hash(canonical, 0, 0);
+
+        int query = canonical.indexOf('?', pathStart);
+        int pathEnd = query < 0 ? canonical.length() : query;
+        int keptEnd = pathEnd;
+        while (keptEnd - pathStart > 1 && canonical.charAt(keptEnd - 1) == '/') keptEnd--;
+        return hash(canonical, keptEnd, pathEnd);
+    }
+
+    /** 64-bit FNV-1a over the chars outside [skipFrom, skipTo) with a final mix; never 0 (0 marks an empty slot). */
+    static long hash(CharSequence s, int skipFrom, int skipTo) {
+        long h = FNV_OFFSET;
+        for (int i = 0; i < s.length(); i++) {
+            if (i == skipFrom && skipTo > skipFrom) {
+                i = skipTo - 1;
+                continue;
+            }
+            char c = s.charAt(i);
+            h = (h ^ (c & 0xff)) * FNV_PRIME;
+            h = (h ^ (c >>> 8)) * FNV_PRIME;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h == EMPTY ? 1 : h;
+    }
+}
@@ -0,0 +1,270 @@
+package utils;
+
+import io.github.bonigarcia.wdm.WebDriverManager;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ---------------------------------------------------------
+ * Pool of warm headless Chrome instances.
+ *
+ * - lease() hands out an idle browser (or starts one while
+ *   the pool is below its size) and health-checks it first
+ * - tryLease() does the same but returns null at once when
+ *   every browser is taken: crawls use it for their extra
+ *   workers, so classes running in parallel never wait on
+ *   each other's browsers
+ * - release() wipes what the lease left behind and parks it
+ *   on about:blank: cookies of every origin and the HTTP cache
+ *   (CDP Network.clearBrowserCookies / clearBrowserCache), and
+ *   storage of every origin it visited (Storage.clearDataFor-
+ *   Origin, all types). Chrome has no way to forget HTTP Basic
+ *   credentials, so a browser that opened a user:pass@ URL is
+ *   quit instead, as is one past maxPages page loads
+ * - invalidate() quits a browser that crashed or hung
+ *
+ * Size:  -Ddriver.poolSize  (default 3)
+ * Recycle after: -Ddriver.maxPages (default 200 page loads)
+ * ---------------------------------------------------------
+ */
+public class WebDriverPool {
+
+    private static WebDriverPool shared;
+    private static boolean driverBinaryResolved = false;
+
+    public static synchronized WebDriverPool shared() {
+        if (shared == null) {
+            shared = new WebDriverPool(
+                    Integer.getInteger("driver.poolSize", 3),
+                    Integer.getInteger("driver.maxPages", 200));
+        }
+        return shared;
+    }
+
+    private static class PooledDriver {
+        final WebDriver raw;
+        final WebDriver decorated;
+        final AtomicInteger pages = new AtomicInteger();
+        final Set<String> origins = ConcurrentHashMap.newKeySet();   // visited this lease
+        volatile boolean authenticated;                               // opened a user:pass@ URL this lease
+
+        PooledDriver(WebDriver raw, WebDriverListener counter) {
+            this.raw = raw;
+            this.decorated = new EventFiringDecorator<WebDriver>(counter).decorate(raw);
+        }
+    }
+
+    private final int size;
+    private final int maxPages;
+    private final Semaphore capacity;
+    private final BlockingDeque<PooledDriver> idle = new LinkedBlockingDeque<>();
+    private final Map<WebDriver, PooledDriver> leased = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    public WebDriverPool(int size, int maxPages) {
+        this.size = Math.max(1, size);
+        this.maxPages = Math.max(1, maxPages);
+        this.capacity = new Semaphore(this.size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Lease a browser, waiting up to -Ddriver.leaseTimeoutSec (default 300) for a free one. */
+    public WebDriver lease() {
+        try {
+            if (!capacity.tryAcquire(Integer.getInteger("driver.leaseTimeoutSec", 300), TimeUnit.SECONDS)) {
+                throw new IllegalStateException("No WebDriver available in pool (size " + size + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a WebDriver");
+        }
+        return checkOut();
+    }
+
+    /** Lease a browser only if one is free right now; null otherwise. */
+    public WebDriver tryLease() {
+        return capacity.tryAcquire() ? checkOut() : null;
+    }
+
+    // Caller holds a capacity permit
+    private WebDriver checkOut() {
+        try {
+            PooledDriver pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                if (isHealthy(pooled)) break;
+                quitQuietly(pooled);
+            }
+            if (pooled == null) pooled = start();
+
+            leased.put(pooled.decorated, pooled);
+            return pooled.decorated;
+
+        } catch (RuntimeException e) {
+            capacity.release();
+            throw e;
+        }
+    }
+
+    /** Return a leased browser; it is reset for the next user or recycled if worn out. */
+    public void release(WebDriver driver) {
+        PooledDriver pooled = driver == null ? null : leased.remove(driver);
+        if (pooled == null) return;
+
+        try {
+            if (pooled.pages.get() >= maxPages || pooled.authenticated || !reset(pooled)) {
+                quitQuietly(pooled);
+            } else {
+                idle.addFirst(pooled);   // most recently used first — its caches are warmest
+            }
+        } finally {
+            capacity.release();
+        }
+    }
+
+    /** Quit a leased browser that crashed or can no longer be trusted. */
+    public void invalidate(WebDriver driver) {
+        PooledDriver pooled = driver == null ? null : leased.remove(driver);
+        if (pooled == null) return;
+
+        quitQuietly(pooled);
+        capacity.release();
+    }
+
+    /** Start browsers up front so the first tests do not pay the cold start. */
+    public void warmUp(int count) {
+        List<WebDriver> started = new ArrayList<>();
+        try {
+            for (int i = 0; i < Math.min(count, size); i++) started.add(lease());
+        } catch (Exception e) {
+            System.out.println("⚠ WebDriver warm-up stopped: " + e.getMessage());
+        } finally {
+            started.forEach(this::release);
+        }
+    }
+
+    /** Quit every idle browser (call once at the end of the suite). */
+    public void shutdown() {
+        PooledDriver pooled;
+        while ((pooled = idle.pollFirst()) != null) quitQuietly(pooled);
+
+        synchronized (leased) {
+            leased.values().forEach(this::quitQuietly);
+            leased.clear();
+        }
+    }
+
+    // ---------------------------------------------------------
+    // Internals
+    // ---------------------------------------------------------
+    private PooledDriver start() {
+        PooledDriver[] holder = new PooledDriver[1];
+
+        WebDriverListener pageCounter = new WebDriverListener() {
+            @Override
+            public void afterGet(WebDriver driver, String url) {
+                visited(holder[0], url);
+            }
+
+            @Override
+            public void afterTo(WebDriver.Navigation navigation, String url) {
+                visited(holder[0], url);
+            }
+        };
+
+        holder[0] = new PooledDriver(createChromeDriver(), pageCounter);
+        return holder[0];
+    }
+
+    private boolean isHealthy(PooledDriver pooled) {
+        try {
+            pooled.raw.getWindowHandle();
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static void visited(PooledDriver pooled, String url) {
+        if (url.startsWith("about:")) return;
+        pooled.pages.incrementAndGet();
+
+        String origin = originOf(url);
+        if (origin != null) pooled.origins.add(origin);
+        try {
+            if (URI.create(url).getRawUserInfo() != null) pooled.authenticated = true;
+        } catch (Exception ignored) {}
+    }
+
+    private boolean reset(PooledDriver pooled) {
+        try {
+            String current = originOf(pooled.raw.getCurrentUrl());   // clicks may have left the navigated origins
+            if (current != null) pooled.origins.add(current);
+
+            if (pooled.raw instanceof HasCdp) {
+                HasCdp cdp = (HasCdp) pooled.raw;
+                cdp.executeCdpCommand("Network.clearBrowserCookies", Map.of());
+                cdp.executeCdpCommand("Network.clearBrowserCache", Map.of());
+                for (String origin : pooled.origins) {
+                    cdp.executeCdpCommand("Storage.clearDataForOrigin", Map.of("origin", origin, "storageTypes", "all"));
+                }
+            } else {
+                pooled.raw.manage().deleteAllCookies();
+            }
+            pooled.origins.clear();
+            pooled.raw.get("about:blank");
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    // scheme://host[:port] of an http(s) URL, null for anything else
+    private static String originOf(String url) {
+        try {
+            URI uri = URI.create(url);
+            String scheme = uri.getScheme() == null ? "" : uri.getScheme().toLowerCase();
+            if (!scheme.equals("http") && !scheme.equals("https") || uri.getHost() == null) return null;
+            return scheme + "://" + uri.getHost().toLowerCase() + (uri.getPort() == -1 ? "" : ":" + uri.getPort());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private void quitQuietly(PooledDriver pooled) {
+        try { pooled.raw.quit(); } catch (Exception ignored) {}
+    }
+
+    /** Start a new headless Chrome with the suite's standard options. */
+    public static WebDriver createChromeDriver() {
+        synchronized (WebDriverPool.class) {
+            if (!driverBinaryResolved) {
+                WebDriverManager.chromedriver().setup();
+                driverBinaryResolved = true;
+            }
+        }
+
+        ChromeOptions options = new ChromeOptions();
+        options.addArguments("--disable-gpu");
+        options.addArguments("--disable-dev-shm-usage");
+        options.addArguments("--no-sandbox");
+        options.addArguments("--disable-extensions");
+        options.addArguments("--disable-notifications");
+        options.addArguments("--window-size=1920,1080");
+        options.addArguments("--remote-allow-origins=*");
+
+        options.addArguments("--headless=new");
+
+        return new ChromeDriver(options);
+    }
+}